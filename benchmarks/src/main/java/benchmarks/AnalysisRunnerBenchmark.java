@@ -0,0 +1,62 @@
+package benchmarks;
+
+import analysis.AnalysisRunner;
+import analysis.ChartService;
+import analysis.CsvLoader;
+import analysis.PriceAggregator;
+import analysis.ScoringService;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Uçtan uca {@link AnalysisRunner}: CSV okuma, özetler, iki PNG grafik ve iki CSV çıktısı.
+ * TC4'ün analiz adımının toplam maliyeti; tek çağrı saniyeler sürebildiği için daha az iterasyon.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Djava.awt.headless=true"})
+public class AnalysisRunnerBenchmark {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 11, 13);
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private AnalysisRunner runner;
+    private Path outDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        runner = new AnalysisRunner(new CsvLoader(), new PriceAggregator(parallelism), new ChartService(),
+                new ScoringService(3, 250, 50, parallelism), FlightData.SLOT_COUNT);
+        outDir = Files.createTempDirectory("enuygun-bench-analysis");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(outDir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(p);
+        }
+    }
+
+    @Benchmark
+    public Path run(FlightData data) throws Exception {
+        runner.run(data.csv, outDir, "İstanbul → Lefkoşa", DATE);
+        return outDir;
+    }
+
+    @Benchmark
+    public Path runStreaming(FlightData data) throws Exception {
+        runner.runStreaming(data.csv, outDir, "İstanbul → Lefkoşa", DATE);
+        return outDir;
+    }
+}
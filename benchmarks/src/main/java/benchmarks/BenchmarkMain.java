@@ -0,0 +1,36 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@code java -jar target/benchmarks.jar [JMH seçenekleri]} giriş noktası.
+ * Standart JMH komut satırını kabul eder; ek olarak her zaman GC profiler'ını (allocation rate, B/op)
+ * açar ve sonucu karşılaştırılabilir JSON olarak yazar (varsayılan: target/jmh-result.json, {@code -rff} ile değişir).
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            // yardım / listeleme isteklerini JMH'nin kendi ana sınıfı karşılasın
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder opts = new OptionsBuilder().parent(cli);
+        if (cli.getProfilers().stream().noneMatch(p -> p.getKlass().equals(GCProfiler.class.getName()))) {
+            opts.addProfiler(GCProfiler.class);
+        }
+        if (!cli.getResultFormat().hasValue()) opts.resultFormat(ResultFormatType.JSON);
+        if (!cli.getResult().hasValue()) opts.result("target/jmh-result.json");
+
+        new Runner(opts.build()).run();
+    }
+}
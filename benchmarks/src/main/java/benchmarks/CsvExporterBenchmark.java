@@ -0,0 +1,52 @@
+package benchmarks;
+
+import analysis.CsvExporter;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** TC4'ün ham satırları CSV'ye yazma maliyeti (BOM + ';' + tırnaklama). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CsvExporterBenchmark {
+
+    private List<String[]> rows;
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp(FlightData data) throws Exception {
+        FlightCsvGenerator gen = new FlightCsvGenerator(FlightCsvGenerator.DEFAULT_SEED);
+        rows = new ArrayList<>(data.rows);
+        for (int i = 0; i < data.rows; i++) rows.add(gen.nextRow());
+        dir = Files.createTempDirectory("enuygun-bench-export");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(dir.resolve("flights.csv"));
+        Files.deleteIfExists(dir.resolve("session.csv"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public Path writeFlights() throws Exception {
+        return CsvExporter.writeFlights(rows, dir, "flights.csv", true);
+    }
+
+    /** Aynı satırların açık bir oturuma tek tek eklenmesi (kartlar geldikçe yazma senaryosu). */
+    @Benchmark
+    public long sessionAppend() throws Exception {
+        try (CsvExporter.Session csv = CsvExporter.open(dir, "session.csv", true)) {
+            for (String[] r : rows) csv.append(r);
+            return csv.rowCount();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package benchmarks;
+
+import analysis.CsvLoader;
+import analysis.FlightCsvRow;
+import analysis.FlightTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** CSV okuma + satır dönüştürme: nesne listesi, sütun tablosu ve akış (forEach) modları. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CsvLoaderBenchmark {
+
+    private final CsvLoader loader = new CsvLoader();
+
+    @Benchmark
+    public List<FlightCsvRow> load(FlightData data) throws Exception {
+        return loader.load(data.csv, FlightData.SLOT_COUNT);
+    }
+
+    @Benchmark
+    public FlightTable loadTable(FlightData data) throws Exception {
+        return loader.loadTable(data.csv, FlightData.SLOT_COUNT);
+    }
+
+    @Benchmark
+    public void forEach(FlightData data, Blackhole bh) throws Exception {
+        loader.forEach(data.csv, FlightData.SLOT_COUNT, bh::consume);
+    }
+}
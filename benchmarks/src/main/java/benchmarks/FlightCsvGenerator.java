@@ -0,0 +1,187 @@
+package benchmarks;
+
+import com.opencsv.CSVWriter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+
+/**
+ * Sentetik flights CSV üretici. Çıktı, TC4'ün CsvExporter ile yazdığı dosyayla aynı biçimdedir
+ * (UTF-8 BOM, ';' ayraç, aynı header) ve sitedeki metin biçimlerini taklit eder:
+ * "1.010" fiyat, "1sa 35dk" süre, "Direkt Uçuş" / "1 Aktarma" aktarma bilgisi.
+ *
+ * Dağılımlar gerçek sonuç sayfalarına yakın tutulur: birkaç büyük havayolu + uzun kuyruk,
+ * sabah/akşam yoğunlaşan kalkış saatleri, havayolu ve aktarmaya göre değişen log-normal fiyatlar.
+ * Aynı seed ve satır sayısı her zaman aynı dosyayı üretir.
+ *
+ * Komut satırı: {@code java -cp target/benchmarks.jar benchmarks.FlightCsvGenerator <out.csv> <rows> [seed]}
+ */
+public final class FlightCsvGenerator {
+
+    public static final long DEFAULT_SEED = 20251113L;
+
+    // havayolu, pay (ağırlık), taban fiyat (TL)
+    private static final String[] AIRLINES = {
+            "Türk Hava Yolları", "Pegasus", "AJet", "SunExpress", "Corendon Airlines",
+            "Lufthansa", "Qatar Airways", "Emirates", "KLM", "Azerbaijan Airlines",
+            "Wizz Air", "Aegean Airlines"
+    };
+    private static final double[] AIRLINE_WEIGHTS = {30, 24, 20, 8, 4, 3, 2.5, 2.5, 2, 1.5, 1.5, 1};
+    private static final int[] AIRLINE_BASE_PRICE = {2600, 1500, 1350, 1700, 1600, 4200, 5100, 5400, 3900, 3300, 1250, 3000};
+
+    // 24 saatlik kalkış yoğunluğu (gece az, 06-09 ve 17-21 arası tepe)
+    private static final double[] HOUR_WEIGHTS = {
+            1, 0.5, 0.3, 0.3, 0.5, 2, 6, 8, 7, 5, 4, 4,
+            4, 4, 4, 5, 6, 7, 8, 7, 6, 4, 3, 2
+    };
+
+    private static final String[] HEADER = {
+            "departure_time", "arrival_time", "airline", "price", "currency", "duration", "stops", "score"
+    };
+
+    private final Random rnd;
+    private final double[] airlineCdf = cdf(AIRLINE_WEIGHTS);
+    private final double[] hourCdf = cdf(HOUR_WEIGHTS);
+
+    public FlightCsvGenerator(long seed) {
+        this.rnd = new Random(seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: FlightCsvGenerator <out.csv> <rows> [seed]");
+            System.exit(2);
+        }
+        Path out = Path.of(args[0]);
+        int rows = Integer.parseInt(args[1].replace("_", ""));
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        long t0 = System.nanoTime();
+        write(out, rows, seed);
+        System.out.printf("%,d rows -> %s (%d ms)%n", rows, out.toAbsolutePath(), (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    /**
+     * {@code java.io.tmpdir/enuygun-bench} altında (rows, seed) için önbelleğe alınmış dosyayı döndürür;
+     * yoksa üretir. Benchmark trial'ları arasında 10M satırı yeniden üretmemek için.
+     */
+    public static Path cached(int rows, long seed) throws IOException {
+        Path dir = Path.of(System.getProperty("java.io.tmpdir"), "enuygun-bench");
+        Path out = dir.resolve("flights_" + rows + "_" + seed + ".csv");
+        if (Files.exists(out)) return out;
+
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "flights_", ".part");
+        write(tmp, rows, seed);
+        // yarım kalmış bir dosya başka bir JVM'e görünmesin
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return out;
+    }
+
+    /** rows satırlık dosyayı akış halinde yazar (bellekte satır listesi tutmaz). */
+    public static void write(Path out, int rows, long seed) throws IOException {
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        FlightCsvGenerator gen = new FlightCsvGenerator(seed);
+        try (Writer w = new OutputStreamWriter(Files.newOutputStream(out), StandardCharsets.UTF_8);
+             CSVWriter writer = new CSVWriter(w, ';', CSVWriter.DEFAULT_QUOTE_CHARACTER,
+                     CSVWriter.DEFAULT_ESCAPE_CHARACTER, CSVWriter.DEFAULT_LINE_END)) {
+            w.write('\uFEFF');
+            writer.writeNext(HEADER);
+            for (int i = 0; i < rows; i++) writer.writeNext(gen.nextRow());
+        }
+    }
+
+    /** Ham (sayfadan okunmuş gibi) bir satır: [dep, arr, airline, price, currency, duration, stops] */
+    public String[] nextRow() {
+        int a = pick(airlineCdf);
+        int stops = nextStops(a);
+        int depMin = pick(hourCdf) * 60 + 5 * rnd.nextInt(12);
+        int duration = nextDuration(stops);
+        int arrMin = (depMin + duration) % (24 * 60);
+        int price = nextPrice(a, stops, depMin);
+
+        return new String[]{
+                hhmm(depMin),
+                hhmm(arrMin),
+                AIRLINES[a],
+                formatPrice(price),
+                rnd.nextInt(50) == 0 ? "TRY" : "TL",
+                formatDuration(duration),
+                stops == 0 ? "Direkt Uçuş" : stops + " Aktarma"
+        };
+    }
+
+    /** Saf metin örnekleri (parser benchmark'ları için). */
+    public String nextDurationText() { return formatDuration(nextDuration(rnd.nextInt(3))); }
+
+    public String nextStopsText() {
+        int s = nextStops(pick(airlineCdf));
+        return s == 0 ? "Direkt Uçuş" : s + " Aktarma";
+    }
+
+    public String nextPriceText() { return formatPrice(nextPrice(pick(airlineCdf), rnd.nextInt(3), rnd.nextInt(1440))); }
+
+    public String nextTimeText() { return hhmm(pick(hourCdf) * 60 + 5 * rnd.nextInt(12)); }
+
+    // ---------- dağılımlar ----------
+
+    private int nextStops(int airline) {
+        // düşük maliyetliler ve THY çoğunlukla direkt; yabancı taşıyıcılar aktarmalı
+        double direct = AIRLINE_BASE_PRICE[airline] < 3000 ? 0.7 : 0.15;
+        double u = rnd.nextDouble();
+        if (u < direct) return 0;
+        return u < direct + (1 - direct) * 0.8 ? 1 : 2;
+    }
+
+    private int nextDuration(int stops) {
+        int flight = 75 + rnd.nextInt(30);
+        int layovers = 0;
+        for (int s = 0; s < stops; s++) layovers += 60 + (int) Math.min(900, Math.abs(rnd.nextGaussian()) * 240) + 90;
+        return flight + layovers;
+    }
+
+    private int nextPrice(int airline, int stops, int depMin) {
+        double base = AIRLINE_BASE_PRICE[airline] * (1 + 0.35 * stops);
+        int hour = depMin / 60;
+        if ((hour >= 6 && hour < 9) || (hour >= 17 && hour < 21)) base *= 1.2;   // yoğun saatler
+        double p = base * Math.exp(rnd.nextGaussian() * 0.35);                   // log-normal gürültü
+        return (int) Math.max(399, Math.min(99_999, Math.round(p)));
+    }
+
+    // ---------- biçimler ----------
+
+    private static String hhmm(int minuteOfDay) {
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    /** 1010 -> "1.010" (sitedeki binlik ayraç) */
+    private static String formatPrice(int price) {
+        if (price < 1000) return String.valueOf(price);
+        return (price / 1000) + "." + String.format("%03d", price % 1000);
+    }
+
+    private static String formatDuration(int minutes) {
+        int h = minutes / 60, m = minutes % 60;
+        if (h == 0) return m + "dk";
+        if (m == 0) return h + "sa";
+        return h + "sa " + m + "dk";
+    }
+
+    private int pick(double[] cdf) {
+        double u = rnd.nextDouble() * cdf[cdf.length - 1];
+        for (int i = 0; i < cdf.length; i++) if (u < cdf[i]) return i;
+        return cdf.length - 1;
+    }
+
+    private static double[] cdf(double[] weights) {
+        double[] c = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) c[i] = (sum += weights[i]);
+        return c;
+    }
+}
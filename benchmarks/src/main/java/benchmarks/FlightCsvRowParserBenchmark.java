@@ -0,0 +1,63 @@
+package benchmarks;
+
+import analysis.FlightCsvRow;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** FlightCsvRow'daki statik parser'lar; her çağrı gerçekçi metinlerden oluşan sabit bir örnek kümesi üzerinde döner. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(FlightCsvRowParserBenchmark.SAMPLES)
+public class FlightCsvRowParserBenchmark {
+
+    static final int SAMPLES = 4096;
+
+    private final String[] durations = new String[SAMPLES];
+    private final String[] stops = new String[SAMPLES];
+    private final String[] prices = new String[SAMPLES];
+    private final String[] times = new String[SAMPLES];
+
+    @Setup
+    public void setUp() {
+        FlightCsvGenerator gen = new FlightCsvGenerator(FlightCsvGenerator.DEFAULT_SEED);
+        for (int i = 0; i < SAMPLES; i++) {
+            durations[i] = gen.nextDurationText();
+            stops[i] = gen.nextStopsText();
+            prices[i] = gen.nextPriceText();
+            times[i] = gen.nextTimeText();
+        }
+    }
+
+    @Benchmark
+    public int parseDurationToMin() {
+        int acc = 0;
+        for (String s : durations) acc += FlightCsvRow.parseDurationToMin(s);
+        return acc;
+    }
+
+    @Benchmark
+    public int parseStops() {
+        int acc = 0;
+        for (String s : stops) acc += FlightCsvRow.parseStops(s);
+        return acc;
+    }
+
+    @Benchmark
+    public int parsePrice() {
+        int acc = 0;
+        for (String s : prices) acc += FlightCsvRow.parsePrice(s);
+        return acc;
+    }
+
+    @Benchmark
+    public int timeToSlot() {
+        int acc = 0;
+        for (String s : times) acc += FlightCsvRow.timeToSlot(s, FlightData.SLOT_COUNT);
+        return acc;
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import analysis.CsvLoader;
+import analysis.FlightCsvRow;
+import analysis.FlightTable;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Benchmark'lar arasında paylaşılan veri: {@code rows} satırlık sentetik CSV ve (gerekirse) belleğe yüklenmiş hali.
+ * Daha büyük bir ölçek için: {@code -p rows=10000000}.
+ */
+@State(Scope.Benchmark)
+public class FlightData {
+
+    public static final int SLOT_COUNT = 6;
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    public Path csv;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        csv = FlightCsvGenerator.cached(rows, FlightCsvGenerator.DEFAULT_SEED);
+    }
+
+    /** Yükleme dışındaki aşamaları ölçen benchmark'lar için satır listesi. */
+    public List<FlightCsvRow> loadRows() throws Exception {
+        return new CsvLoader().load(csv, SLOT_COUNT);
+    }
+
+    public FlightTable loadTable() throws Exception {
+        return new CsvLoader().loadTable(csv, SLOT_COUNT);
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import analysis.FlightCsvRow;
+import analysis.FlightTable;
+import analysis.PriceAggregator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Havayolu özetleri ve saat dilimi matrisi; nesne listesi, sütun tablosu ve akış özeti karşılaştırmalı. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PriceAggregatorBenchmark {
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private PriceAggregator aggregator;
+    private List<FlightCsvRow> rows;
+    private FlightTable table;
+    private List<String> airlines;
+
+    @Setup(Level.Trial)
+    public void setUp(FlightData data) throws Exception {
+        aggregator = new PriceAggregator(parallelism);
+        rows = data.loadRows();
+        table = data.loadTable();
+        airlines = aggregator.airlinesSorted(table);
+    }
+
+    @Benchmark
+    public Map<String, PriceAggregator.PriceStats> summarizeList() {
+        return aggregator.summarizeByAirline(rows);
+    }
+
+    @Benchmark
+    public Map<String, PriceAggregator.PriceStats> summarizeTable() {
+        return aggregator.summarizeByAirline(table);
+    }
+
+    @Benchmark
+    public double[][] slotMatrixList() {
+        return aggregator.avgPriceMatrixByAirlineAndSlot(rows, airlines, FlightData.SLOT_COUNT);
+    }
+
+    @Benchmark
+    public double[][] slotMatrixTable() {
+        return aggregator.avgPriceMatrixByAirlineAndSlot(table, airlines, FlightData.SLOT_COUNT);
+    }
+
+    /** Satırları tek tek tüketen akış özeti (yükleme hariç); parallelism'den etkilenmez. */
+    @Benchmark
+    public Map<String, PriceAggregator.PriceStats> streamingSummary() {
+        var summary = new PriceAggregator.StreamingSummary(FlightData.SLOT_COUNT);
+        for (FlightCsvRow r : rows) summary.accept(r);
+        return summary.stats();
+    }
+}
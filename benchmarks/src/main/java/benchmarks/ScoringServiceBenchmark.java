@@ -0,0 +1,73 @@
+package benchmarks;
+
+import analysis.FlightCsvRow;
+import analysis.FlightTable;
+import analysis.ScoreModel;
+import analysis.ScoringService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skorlama: tam sıralama (rank) ile sınırlı heap'li topN karşılaştırması ve ağırlık taraması (sweep).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ScoringServiceBenchmark {
+
+    // TC4'teki varsayılan ağırlıklar
+    private static final int ALPHA = 3, STOP_PENALTY = 250, DIRECT_BONUS = 50;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    @Param({"15"})
+    public int topN;
+
+    private ScoringService scoring;
+    private List<FlightCsvRow> rows;
+    private FlightTable table;
+    private List<ScoreModel> alphaSweep;   // α = 0..15, diğer ağırlıklar sabit
+
+    @Setup(Level.Trial)
+    public void setUp(FlightData data) throws Exception {
+        scoring = new ScoringService(ALPHA, STOP_PENALTY, DIRECT_BONUS, parallelism);
+        rows = data.loadRows();
+        table = data.loadTable();
+        alphaSweep = new ArrayList<>();
+        for (int alpha = 0; alpha < 16; alpha++) alphaSweep.add(ScoreModel.linear(alpha, STOP_PENALTY, DIRECT_BONUS));
+    }
+
+    @Benchmark
+    public List<ScoringService.ScoredFlight> rankTable() {
+        return scoring.rank(table);
+    }
+
+    @Benchmark
+    public List<ScoringService.ScoredFlight> topNList() {
+        return scoring.topN(rows, topN);
+    }
+
+    @Benchmark
+    public List<ScoringService.ScoredFlight> topNTable() {
+        return scoring.topN(table, topN);
+    }
+
+    @Benchmark
+    public List<ScoringService.ScoredFlight> topNStreaming() {
+        var top = scoring.newTopN(topN);
+        for (FlightCsvRow r : rows) top.accept(r);
+        return top.result();
+    }
+
+    @Benchmark
+    public List<List<ScoringService.ScoredFlight>> sweepAlpha16() {
+        return scoring.sweep(table, alphaSweep, topN);
+    }
+}
@@ -3,13 +3,29 @@ package analysis;
 import com.opencsv.exceptions.CsvException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /** CSV'yi oku → özetle → görselleştir → en-uygunları yaz. Tek çağrıda hepsi. */
 public class AnalysisRunner {
 
+    /** Artımlı analizin rota klasöründeki durum dosyası. */
+    public static final String STATE_FILE = "route_state.bin";
+    public static final String TREND_CHART = "price_trend_top_flights.png";
+    public static final String CHEAPEST_CHART = "cheapest_per_day.png";
+    /** top_cost_effective.csv satır sayısı. */
+    static final int TOP_N = 15;
+
     private final CsvLoader csvLoader;
     private final PriceAggregator aggregator;
     private final ChartService chartService;
@@ -35,77 +51,233 @@ public class AnalysisRunner {
      * @param route     Başlık için "İstanbul → Lefkoşa" gibi
      * @param date      Başlık için tarih
      */
-    public void run(Path csvPath, Path outDir, String route, LocalDate date) throws IOException, CsvException {
-        // 1) Oku
-        List<FlightCsvRow> rows = csvLoader.load(csvPath, slotCount);
-        if (rows.isEmpty()) return;
+    public Result run(Path csvPath, Path outDir, String route, LocalDate date) throws IOException, CsvException {
+        // 1) Oku (sütun bazlı)
+        return run(csvLoader.loadTable(csvPath, slotCount), outDir, route, date);
+    }
+
+    /** Nesne listesi üzerinde analiz (mevcut List tabanlı çağıranlar için). */
+    public Result run(List<FlightCsvRow> rows, Path outDir, String route, LocalDate date) throws IOException {
+        if (rows.isEmpty()) return Result.EMPTY;
 
         // 2) Özetler
         Map<String, PriceAggregator.PriceStats> stats = aggregator.summarizeByAirline(rows);
         List<String> airlines = aggregator.airlinesSorted(rows);
+        double[][] matrix = aggregator.avgPriceMatrixByAirlineAndSlot(rows, airlines, slotCount);
+
+        // 3) En uygun maliyetli uçuşlar
+        List<ScoringService.ScoredFlight> top = scoring.topN(rows, TOP_N);
+
+        writeOutputs(stats, airlines, matrix, top, outDir, route, date);
+        return new Result(stats, top);
+    }
+
+    /** Önceden yüklenmiş sütun bazlı tablo üzerinde analiz. */
+    public Result run(FlightTable table, Path outDir, String route, LocalDate date) throws IOException {
+        if (table.size == 0) return Result.EMPTY;
+
+        Map<String, PriceAggregator.PriceStats> stats = aggregator.summarizeByAirline(table);
+        List<String> airlines = aggregator.airlinesSorted(table);
+        double[][] matrix = aggregator.avgPriceMatrixByAirlineAndSlot(table, airlines, slotCount);
+        List<ScoringService.ScoredFlight> top = scoring.topN(table, TOP_N);
+
+        writeOutputs(stats, airlines, matrix, top, outDir, route, date);
+        return new Result(stats, top);
+    }
+
+    /**
+     * {@link #run} ile aynı çıktıları üretir ama CSV'yi tek geçişte akış olarak işler:
+     * satırlar listeye alınmaz, bellekte yalnızca havayolu sayaçları ve ilk 15 aday tutulur.
+     * Çok büyük (ör. aylarca birleştirilmiş) flights CSV'leri için.
+     * Satır-yerel olmayan modelde (Pareto) skor tüm tabloya bağlı olduğundan dosya sütun bazlı tabloya okunup
+     * {@link #run(FlightTable, Path, String, LocalDate)} ile analiz edilir (bellek satır sayısıyla büyür).
+     */
+    public Result runStreaming(Path csvPath, Path outDir, String route, LocalDate date) throws IOException, CsvException {
+        if (!scoring.model().rowLocal()) return run(csvLoader.loadTable(csvPath, slotCount), outDir, route, date);
+        var summary = new PriceAggregator.StreamingSummary(slotCount);
+        var top = scoring.newTopN(TOP_N);
+        csvLoader.forEach(csvPath, slotCount, summary.andThen(top));
+        if (summary.isEmpty()) return Result.EMPTY;
+
+        List<String> airlines = summary.airlinesSorted();
+        Map<String, PriceAggregator.PriceStats> stats = summary.stats();
+        List<ScoringService.ScoredFlight> best = top.result();
+        writeOutputs(stats, airlines, summary.avgPriceMatrix(airlines), best, outDir, route, date);
+        return new Result(stats, best);
+    }
+
+    /**
+     * Artımlı analiz: {@code csvPath} yeni bir çıkarma batch'i sayılır ve {@code outDir}'deki
+     * {@value #STATE_FILE} durumuna katlanır; çıktılar geçmiş CSV'ler yeniden okunmadan durumdan üretilir.
+     * Batch id CSV içeriğinin özetidir: aynı dosya ikinci kez verilirse sayılar değişmez, çıktılar yeniden yazılır.
+     * Sonuç geçmişteki tüm batch'leri kapsar; p50/p90 hesaplanmaz ({@link RouteAggregateState}).
+     *
+     * @throws IllegalArgumentException skor modeli satır-yerel değilse (Pareto); durum dosyasına dokunulmaz
+     */
+    public Result runIncremental(Path csvPath, Path outDir, String route, LocalDate date) throws IOException, CsvException {
+        return runIncremental(contentId(csvPath), csvLoader.loadTable(csvPath, slotCount), outDir, route, date);
+    }
+
+    /** Önceden yüklenmiş bir batch'i {@code batchId} ile duruma katlar (bkz. {@link #runIncremental(Path, Path, String, LocalDate)}). */
+    public Result runIncremental(String batchId, FlightTable batch, Path outDir, String route, LocalDate date) throws IOException {
+        RouteAggregateState.requireRowLocal(scoring.model());
+        Path stateFile = outDir.resolve(STATE_FILE);
+        RouteAggregateState state = RouteAggregateState.loadOrEmpty(stateFile, slotCount, TOP_N);
+        if (state.slotCount() != slotCount) {
+            throw new IOException(stateFile + " was built with slotCount=" + state.slotCount()
+                    + " but analysis uses " + slotCount + "; delete it to start over");
+        }
+        if (state.fold(batchId, batch, scoring)) state.save(stateFile);
+        if (state.isEmpty()) return Result.EMPTY;
+
+        List<String> airlines = state.airlinesSorted();
+        Map<String, PriceAggregator.PriceStats> stats = state.stats();
+        List<ScoringService.ScoredFlight> top = state.top(TOP_N);
+        writeOutputs(stats, airlines, state.avgPriceMatrix(airlines), top, outDir, route, date);
+        return new Result(stats, top);
+    }
+
+    /**
+     * Fiyat geçmişinden trend grafikleri: bu koşumun en iyi {@code maxFlights} uçuşunun son {@code lastN}
+     * capture'daki fiyatı ({@value #TREND_CHART}) ve gün başına gözlenen en düşük fiyat ({@value #CHEAPEST_CHART}).
+     * Geçmiş dosyası okunur, CSV'ler değil; çizimler render havuzunda paralel yapılır.
+     */
+    public void writeTrendCharts(PriceHistoryStore history, List<ScoringService.ScoredFlight> top,
+                                 Path outDir, String route, int lastN, int maxFlights) throws IOException {
+        Map<String, List<PriceHistoryStore.Observation>> series = new LinkedHashMap<>();
+        for (var f : top) {
+            if (series.size() == maxFlights) break;
+            FlightCsvRow r = f.row;
+            String key = PriceHistoryStore.flightKey(r.departureTime, r.arrivalTime, r.stopsCount, r.durationMin);
+            String label = r.airline + " " + r.departureTime + "-" + r.arrivalTime;
+            if (!series.containsKey(label)) series.put(label, history.trend(r.airline == null ? "" : r.airline.trim(), key, lastN));
+        }
+
+        var trend = chartService.savePriceTrendAsync(series, outDir, TREND_CHART,
+                route + " | Son " + lastN + " capture | En iyi uçuşların fiyatı");
+        var cheapest = chartService.saveCheapestPerDayAsync(history.cheapestPerDay(ZoneId.systemDefault()), outDir,
+                CHEAPEST_CHART, route + " | Gün başına en düşük fiyat");
+        awaitQuietly(trend, cheapest);
+        await(trend);
+        await(cheapest);
+    }
+
+    /** Dosya içeriğinin SHA-256 özeti (hex); aynı CSV aynı batch id'yi verir. */
+    static String contentId(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] buf = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buf)) > 0) sha.update(buf, 0, n);
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);   // her JDK'da bulunur
+        }
+    }
+
+    /** Bir çalıştırmanın bellekteki özeti (çıktı dosyalarıyla aynı veri); boş CSV'de {@link #EMPTY}. */
+    public static class Result {
+        public static final Result EMPTY = new Result(Map.of(), List.of());
+
+        /** Havayolu → istatistik, summary_stats.csv sırasıyla. */
+        public final Map<String, PriceAggregator.PriceStats> stats;
+        /** En uygun maliyetli uçuşlar, top_cost_effective.csv sırasıyla. */
+        public final List<ScoringService.ScoredFlight> top;
+
+        public Result(Map<String, PriceAggregator.PriceStats> stats, List<ScoringService.ScoredFlight> top) {
+            this.stats = stats;
+            this.top = top;
+        }
+
+        public boolean isEmpty() { return stats.isEmpty(); }
+
+        /** Toplam uçuş sayısı. */
+        public int flightCount() {
+            int n = 0;
+            for (var st : stats.values()) n += st.count;
+            return n;
+        }
+    }
 
-        // 3) Grafikler
+    private void writeOutputs(Map<String, PriceAggregator.PriceStats> stats,
+                              List<String> airlines,
+                              double[][] matrix,
+                              List<ScoringService.ScoredFlight> top,
+                              Path outDir, String route, LocalDate date) throws IOException {
+        // Grafikler: render havuzunda çizilirken CSV'ler yazılır
         var slotLabels = chartService.buildSlotLabels(slotCount);
-        double[][] matrix = aggregator.avgPriceMatrixByAirlineAndSlot(rows, airlines, slotCount);
 
-        chartService.saveMinAvgMaxBar(
+        var bar = chartService.saveMinAvgMaxBarAsync(
                 stats,
                 outDir,
                 "min_max_avg_by_airline.png",
                 route + " | " + date + " | Min/Ort/Max"
         );
-        chartService.saveHeatmap(
+        var heatmap = chartService.saveHeatmapAsync(
                 matrix, airlines, slotLabels, outDir,
                 "heatmap_price_by_airline_timeslot.png",
                 route + " | " + date + " | Saat Dilimine Göre Ortalama Fiyat"
         );
 
-        // 4) En uygun maliyetli uçuşlar
-        List<ScoringService.ScoredFlight> top = scoring.topN(rows, 15);
-        writeTopCostEffectiveCsv(top, outDir.resolve("top_cost_effective.csv"));
+        try {
+            // En uygun maliyetli uçuşlar
+            writeTopCostEffectiveCsv(top, outDir.resolve("top_cost_effective.csv"));
 
-        // 5) Özet tabloyu da CSV olarak bırak (havayoluna göre min/avg/max)
-        writeSummaryCsv(stats, outDir.resolve("summary_stats.csv"));
+            // Özet tabloyu da CSV olarak bırak (havayoluna göre min/avg/max)
+            writeSummaryCsv(stats, outDir.resolve("summary_stats.csv"));
+        } finally {
+            // CSV hatası olsa da grafikler bitmeden dönme (çıktı klasörü yarım kalmasın)
+            awaitQuietly(bar, heatmap);
+        }
+        await(bar);
+        await(heatmap);
+    }
+
+    /** Grafiği bekler; çizim hatasını çağırana asıl tipiyle (IOException / RuntimeException) iletir. */
+    private static void await(CompletableFuture<Path> chart) throws IOException {
+        try {
+            chart.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException io) throw io.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    private static void awaitQuietly(CompletableFuture<?>... charts) {
+        for (var f : charts) {
+            try {
+                f.join();
+            } catch (CompletionException | CancellationException ignored) {
+                // hata await() ile raporlanır
+            }
+        }
     }
 
     // ------------ CSV yazıcılar ------------
 
     private void writeTopCostEffectiveCsv(List<ScoringService.ScoredFlight> top, Path out) throws IOException {
-        List<String[]> rows = new ArrayList<>(top.size());
-        for (var s : top) rows.add(ScoringService.toCsvRow(s));
-        CsvExporter.writeFlights( // var olan yazarı kullanalım
-                rows,
-                out.getParent(),
-                out.getFileName().toString(),
-                true // header
-        );
+        try (var csv = CsvExporter.open(out.getParent(), out.getFileName().toString(), true)) {
+            for (var s : top) csv.append(ScoringService.toCsvRow(s));
+        }
     }
 
     private void writeSummaryCsv(Map<String, PriceAggregator.PriceStats> stats, Path out) throws IOException {
-        List<String[]> rows = new ArrayList<>();
-        for (var e : stats.entrySet()) {
-            var st = e.getValue();
-            rows.add(new String[]{
-                    st.airline,
-                    String.valueOf(st.count),
-                    String.valueOf(st.min),
-                    String.format(Locale.US, "%.2f", st.avg),
-                    String.valueOf(st.max)
-            });
+        // küçük bir header farkı: flights header'ı yerine kendi header'ımız
+        try (var csv = CsvExporter.open(out.getParent(), out.getFileName().toString(), false)) {
+            csv.append(new String[]{"airline","count","min","avg","max"});
+            for (var e : stats.entrySet()) {
+                var st = e.getValue();
+                csv.append(new String[]{
+                        st.airline,
+                        String.valueOf(st.count),
+                        String.valueOf(st.min),
+                        String.format(Locale.US, "%.2f", st.avg),
+                        String.valueOf(st.max)
+                });
+            }
         }
-        // küçük bir header farkı:
-        analysis.CsvExporter.writeFlights(
-                prependHeader(rows, new String[]{"airline","count","min","avg","max"}),
-                out.getParent(),
-                out.getFileName().toString(),
-                false // header'ı biz ekledik
-        );
-    }
-
-    private static List<String[]> prependHeader(List<String[]> rows, String[] header) {
-        List<String[]> all = new ArrayList<>(rows.size() + 1);
-        all.add(header);
-        all.addAll(rows);
-        return all;
     }
 }
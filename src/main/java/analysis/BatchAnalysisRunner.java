@@ -0,0 +1,337 @@
+package analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utils.ConfigReader;
+import utils.ConfigSnapshot;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Bir klasördeki (ya da glob'a uyan) {@code flights_<from>_<to>.csv} dosyalarının hepsini analiz eder.
+ * Her dosya work-stealing bir havuzda ayrı bir iş olarak okunur, özetlenir, skorlanır ve çizilir;
+ * çıktılar TC4 ile aynı düzende {@code <outBase>/analysis/<from>_<to>_<date>/} altına yazılır.
+ * Aynı rotaya ait birden çok dosya (ör. paralel worker'ların ayrı export klasörleri) aynı klasöre yarışarak yazmaz:
+ * incremental modda sırayla aynı duruma katlanır, aksi halde her biri üst klasör yolundan türetilen bir alt klasöre yazılır.
+ * Bir dosyadaki hata (Error dahil) yalnızca o rotayı FAILED yapar, batch'in geri kalanı devam eder.
+ * Sonda tüm rotaları tek satırda özetleyen {@code batch_summary_<date>.csv} yazılır.
+ *
+ * Verilen {@link AnalysisRunner} rotalar arasında paylaşılır (servisleri durumsuzdur; grafikler
+ * ChartService'in ortak render havuzunda çizilir).
+ */
+public class BatchAnalysisRunner {
+
+    private static final Logger log = LogManager.getLogger(BatchAnalysisRunner.class);
+
+    /** flights_Istanbul_Lefkosa.csv (ya da .fbin) → (Istanbul, Lefkosa) */
+    private static final Pattern FLIGHTS_FILE = Pattern.compile("flights_([^_]+)_(.+)\\.(?:csv|fbin)");
+
+    private final AnalysisRunner runner;
+    private final int parallelism;
+    private final boolean incremental;
+
+    /** @param parallelism aynı anda analiz edilecek dosya sayısı (en az 1) */
+    public BatchAnalysisRunner(AnalysisRunner runner, int parallelism) {
+        this(runner, parallelism, false);
+    }
+
+    /**
+     * @param incremental true ise her CSV rota klasöründeki duruma katlanır
+     *                    ({@link AnalysisRunner#runIncremental(Path, Path, String, LocalDate)})
+     */
+    public BatchAnalysisRunner(AnalysisRunner runner, int parallelism, boolean incremental) {
+        this.runner = runner;
+        this.parallelism = Math.max(1, parallelism);
+        this.incremental = incremental;
+    }
+
+    /**
+     * Komut satırı: {@code BatchAnalysisRunner <klasör|glob> [outBase]}.
+     * Analiz ayarları TC4 ile aynı config anahtarlarından okunur.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: BatchAnalysisRunner <dir|glob> [outBase]");
+            System.exit(2);
+        }
+        ConfigSnapshot cfg = ConfigReader.snapshot();
+        String outBase = args.length > 1 ? args[1] : cfg.getOrDefault("analysis.outputBase", "target");
+        int slotCount = cfg.getIntOrDefault("analysis.slotCount", 6);
+        int parallelism = cfg.getIntOrDefault("analysis.parallelism", 1);
+        int batchThreads = cfg.getIntOrDefault("analysis.batch.parallelism",
+                Runtime.getRuntime().availableProcessors());
+
+        BatchResult result;
+        try (var charts = new ChartService(cfg.getIntOrDefault("analysis.chartThreads", 2))) {
+            var runner = new AnalysisRunner(new CsvLoader(), new PriceAggregator(parallelism), charts,
+                    new ScoringService(ScoreModel.fromConfig(cfg), parallelism),
+                    slotCount);
+            result = new BatchAnalysisRunner(runner, batchThreads, cfg.getBoolean("analysis.incremental", false)).run(args[0], Path.of(outBase), LocalDate.now());
+        }
+        if (!result.failed().isEmpty()) System.exit(1);
+    }
+
+    /** {@code dirOrGlob}'a uyan dosyaları bulur ve analiz eder. */
+    public BatchResult run(String dirOrGlob, Path outBase, LocalDate date) throws IOException {
+        return run(discover(dirOrGlob), outBase, date);
+    }
+
+    /** Verilen CSV'leri analiz eder; rota sonuçları dosya sırasıyla döner. */
+    public BatchResult run(List<Path> csvFiles, Path outBase, LocalDate date) throws IOException {
+        Path analysisDir = outBase.resolve("analysis");
+        long t0 = System.nanoTime();
+
+        // aynı çıktı klasörüne yazan dosyalar tek işte, dosya sırasıyla çalışır; farklı klasörler paralel
+        Map<Path, List<Job>> groups = new LinkedHashMap<>();
+        for (Job job : plan(csvFiles, analysisDir, date)) groups.computeIfAbsent(job.outDir, k -> new ArrayList<>()).add(job);
+
+        RouteResult[] slots = new RouteResult[csvFiles.size()];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(groups.size());
+            for (List<Job> group : groups.values()) {
+                tasks.add(pool.submit(() -> {
+                    for (Job job : group) slots[job.index] = analyze(job, date);
+                }));
+            }
+            for (ForkJoinTask<?> t : tasks) t.join();
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<RouteResult> results = Arrays.asList(slots);
+
+        Path summary = writeBatchSummary(results, analysisDir, "batch_summary_" + date + ".csv");
+        BatchResult batch = new BatchResult(results, summary);
+        log.info("Batch analysis: {} files, {} ok, {} failed in {} ms. Summary: {}",
+                results.size(), results.size() - batch.failed().size(), batch.failed().size(),
+                (System.nanoTime() - t0) / 1_000_000, summary.toAbsolutePath());
+        return batch;
+    }
+
+    /**
+     * Klasörse içindeki {@code flights_*.csv} / {@code .fbin} dosyaları, tek dosyaysa kendisi, aksi halde glob
+     * (ör. {@code target/exports/flights_Istanbul_*.csv}, {@code exports/**}{@code /flights_*.csv}). Sıralı döner.
+     * Aynı rotanın hem CSV'si hem ikili kopyası ({@link FlightBinary}) bulunursa ikili olan okunur.
+     */
+    public static List<Path> discover(String dirOrGlob) throws IOException {
+        int meta = -1;
+        for (int i = 0; i < dirOrGlob.length() && meta < 0; i++) {
+            if ("*?[{".indexOf(dirOrGlob.charAt(i)) >= 0) meta = i;
+        }
+        if (meta < 0) {   // glob yok: dosya ya da klasör
+            Path p = Path.of(dirOrGlob);
+            if (Files.isRegularFile(p)) return List.of(p);
+            if (!Files.isDirectory(p)) throw new IOException("No such file or directory: " + dirOrGlob);
+            return walk(p, "flights_*.{csv,fbin}", 1);
+        }
+
+        // glob'dan önceki son ayraca kadar olan kısım taranacak klasör, kalanı desen
+        int sep = Math.max(dirOrGlob.lastIndexOf('/', meta), dirOrGlob.lastIndexOf('\\', meta));
+        Path base = sep < 0 ? Path.of("") : Path.of(dirOrGlob.substring(0, sep));
+        String rest = dirOrGlob.substring(sep + 1);
+        int depth = rest.contains("**") ? Integer.MAX_VALUE : rest.split("[/\\\\]+").length;
+        return Files.isDirectory(base) ? walk(base, rest, depth) : List.of();
+    }
+
+    private static List<Path> walk(Path base, String glob, int depth) throws IOException {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        try (Stream<Path> files = Files.walk(base, depth)) {
+            List<Path> found = files.filter(Files::isRegularFile)
+                    .filter(p -> matcher.matches(base.relativize(p)))
+                    .sorted()
+                    .toList();
+            Set<Path> all = new HashSet<>(found);
+            return found.stream()
+                    .filter(p -> FlightBinary.isBinary(p) || !all.contains(FlightBinary.siblingOf(p)))
+                    .toList();
+        }
+    }
+
+    // ---------- rota başına iş ----------
+
+    /** Dosya → rota anahtarı ve çıktı klasörü; incremental değilse aynı rotanın dosyaları ayrı klasörlere ayrılır. */
+    private List<Job> plan(List<Path> files, Path analysisDir, LocalDate date) {
+        List<Job> jobs = new ArrayList<>(files.size());
+        Map<String, List<Job>> byRoute = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            Path csv = files.get(i);
+            String fileName = csv.getFileName().toString();
+            Matcher m = FLIGHTS_FILE.matcher(fileName);
+            String from = m.matches() ? m.group(1) : fileName.replaceFirst("\\.(csv|fbin)$", "");
+            String to = m.matches() ? m.group(2) : "";
+            String key = to.isEmpty() ? from : from + "_" + to;
+            String title = to.isEmpty() ? from : from + " → " + to;
+            Job job = new Job(i, csv, key, title, analysisDir.resolve(key + "_" + date));
+            jobs.add(job);
+            byRoute.computeIfAbsent(key, k -> new ArrayList<>()).add(job);
+        }
+        if (!incremental) {
+            for (List<Job> same : byRoute.values()) if (same.size() > 1) separate(same);
+        }
+        return jobs;
+    }
+
+    /** Aynı rotanın dosyalarına, ortak üst klasöre göre göreli yollarından alt klasör adı verir (worker-1, a_exports...). */
+    private static void separate(List<Job> same) {
+        Path common = same.get(0).csv.toAbsolutePath().normalize().getParent();
+        for (Job job : same) {
+            Path parent = job.csv.toAbsolutePath().normalize().getParent();
+            while (common != null && (parent == null || !parent.startsWith(common))) common = common.getParent();
+        }
+        Set<String> used = new HashSet<>();
+        for (int k = 0; k < same.size(); k++) {
+            Job job = same.get(k);
+            Path parent = job.csv.toAbsolutePath().normalize().getParent();
+            String rel = parent == null ? "" : (common == null ? parent : common.relativize(parent)).toString();
+            String sub = rel.replaceAll("[\\\\/:]+", "_").replaceAll("^_+", "");
+            // aynı klasörden iki giriş (ör. açıkça verilen .csv ve .fbin): sıra numarası
+            if (sub.isEmpty() || !used.add(sub)) {
+                sub = (sub.isEmpty() ? "" : sub + "_") + (k + 1);
+                used.add(sub);
+            }
+            job.outDir = job.outDir.resolve(sub);
+        }
+    }
+
+    private RouteResult analyze(Job job, LocalDate date) {
+        Path csv = job.csv;
+        Path outDir = job.outDir;
+        String fileName = csv.getFileName().toString();
+        long t0 = System.nanoTime();
+        try {
+            AnalysisRunner.Result r = incremental
+                    ? runner.runIncremental(csv, outDir, job.title, date)
+                    : runner.run(csv, outDir, job.title, date);
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            log.info("Analyzed {} ({} flights) in {} ms -> {}", fileName, r.flightCount(), ms, outDir);
+            return new RouteResult(csv, job.route, outDir, r, null, ms);
+        } catch (Exception | Error e) {
+            // OutOfMemoryError vb. de yalnızca bu rotayı düşürür; diğer rotaların işi sürer
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            log.error("Analysis failed for {}: {}", fileName, e.toString(), e);
+            return new RouteResult(csv, job.route, outDir, null, e, ms);
+        }
+    }
+
+    /** Tek girdi dosyası için planlanan iş. */
+    private static final class Job {
+        final int index;
+        final Path csv;
+        final String route;
+        final String title;
+        Path outDir;
+
+        Job(int index, Path csv, String route, String title, Path outDir) {
+            this.index = index;
+            this.csv = csv;
+            this.route = route;
+            this.title = title;
+            this.outDir = outDir;
+        }
+    }
+
+    private static Path writeBatchSummary(List<RouteResult> results, Path dir, String fileName) throws IOException {
+        try (var csv = CsvExporter.open(dir, fileName, false)) {
+            csv.append(new String[]{"route", "file", "status", "flights", "airlines", "min", "avg", "max",
+                    "cheapest_airline", "best_airline", "best_price", "best_score", "millis", "error"});
+            for (RouteResult r : results) {
+                String[] row = new String[14];
+                row[0] = r.route;
+                row[1] = r.csv.getFileName().toString();
+                row[2] = r.status();
+                row[12] = String.valueOf(r.millis);
+                if (r.error != null) {
+                    row[13] = r.error.getClass().getSimpleName() + ": " + r.error.getMessage();
+                } else if (!r.result.isEmpty()) {
+                    fillStats(row, r.result);
+                }
+                csv.append(row);
+            }
+            return csv.path();
+        }
+    }
+
+    private static void fillStats(String[] row, AnalysisRunner.Result r) {
+        int flights = 0, min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        double sum = 0;
+        String cheapest = "";
+        for (var st : r.stats.values()) {
+            flights += st.count;
+            sum += st.avg * st.count;
+            if (st.min < min) { min = st.min; cheapest = st.airline; }
+            max = Math.max(max, st.max);
+        }
+        row[3] = String.valueOf(flights);
+        row[4] = String.valueOf(r.stats.size());
+        row[5] = String.valueOf(min);
+        row[6] = String.format(Locale.US, "%.2f", sum / flights);
+        row[7] = String.valueOf(max);
+        row[8] = cheapest;
+        if (!r.top.isEmpty()) {
+            var best = r.top.get(0);
+            row[9] = best.row.airline;
+            row[10] = String.valueOf(best.row.price);
+            row[11] = String.format(Locale.US, "%.2f", best.score);
+        }
+    }
+
+    // ---------- sonuç tipleri ----------
+
+    /** Tek dosyanın sonucu: başarılıysa {@link #result}, değilse {@link #error} dolu. */
+    public static class RouteResult {
+        public final Path csv;
+        public final String route;          // "Istanbul_Lefkosa"
+        public final Path outDir;
+        public final AnalysisRunner.Result result;
+        public final Throwable error;
+        public final long millis;
+
+        RouteResult(Path csv, String route, Path outDir, AnalysisRunner.Result result, Throwable error, long millis) {
+            this.csv = csv;
+            this.route = route;
+            this.outDir = outDir;
+            this.result = result;
+            this.error = error;
+            this.millis = millis;
+        }
+
+        public boolean ok() { return error == null; }
+
+        /** OK, EMPTY (başlık dışında satır yok) ya da FAILED */
+        public String status() {
+            if (error != null) return "FAILED";
+            return result.isEmpty() ? "EMPTY" : "OK";
+        }
+    }
+
+    public static class BatchResult {
+        public final List<RouteResult> routes;
+        public final Path summaryCsv;
+
+        BatchResult(List<RouteResult> routes, Path summaryCsv) {
+            this.routes = List.copyOf(routes);
+            this.summaryCsv = summaryCsv;
+        }
+
+        public List<RouteResult> failed() {
+            return routes.stream().filter(r -> !r.ok()).toList();
+        }
+    }
+}
@@ -4,11 +4,110 @@ import org.knowm.xchart.*;
 import org.knowm.xchart.style.Styler;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class ChartService {
+/**
+ * XChart ile PNG grafik üretimi. save* metotları çağıran thread'de çizer; *Async karşılıkları
+ * aynı işi servise ait sınırlı bir render havuzunda yapar ve {@link CompletableFuture} döndürür.
+ * Havuz ilk async çağrıda oluşturulur; {@link #close()} bekleyen çizimleri bitirip kapatır.
+ */
+public class ChartService implements AutoCloseable {
+
+    public static final int DEFAULT_RENDER_THREADS = 2;
+
+    private final int renderThreads;
+    private ThreadPoolExecutor renderPool;   // ilk async çağrıda kurulur
+
+    public ChartService() {
+        this(DEFAULT_RENDER_THREADS);
+    }
+
+    /** @param renderThreads eşzamanlı PNG çizimi yapan thread sayısı (en az 1) */
+    public ChartService(int renderThreads) {
+        this.renderThreads = Math.max(1, renderThreads);
+    }
+
+    /** {@link #saveMinAvgMaxBar} çizimini render havuzunda yapar. */
+    public CompletableFuture<Path> saveMinAvgMaxBarAsync(Map<String, PriceAggregator.PriceStats> statsByAirline,
+                                                         Path outDir, String fileName, String title) {
+        return submit(() -> saveMinAvgMaxBar(statsByAirline, outDir, fileName, title));
+    }
+
+    /** {@link #saveHeatmap} çizimini render havuzunda yapar. */
+    public CompletableFuture<Path> saveHeatmapAsync(double[][] avgMatrix, List<String> airlines,
+                                                    List<String> slotLabels, Path outDir,
+                                                    String fileName, String title) {
+        return submit(() -> saveHeatmap(avgMatrix, airlines, slotLabels, outDir, fileName, title));
+    }
+
+    /** {@link #savePriceTrend} çizimini render havuzunda yapar. */
+    public CompletableFuture<Path> savePriceTrendAsync(Map<String, List<PriceHistoryStore.Observation>> series,
+                                                       Path outDir, String fileName, String title) {
+        return submit(() -> savePriceTrend(series, outDir, fileName, title));
+    }
+
+    /** {@link #saveCheapestPerDay} çizimini render havuzunda yapar. */
+    public CompletableFuture<Path> saveCheapestPerDayAsync(SortedMap<LocalDate, PriceHistoryStore.Observation> perDay,
+                                                           Path outDir, String fileName, String title) {
+        return submit(() -> saveCheapestPerDay(perDay, outDir, fileName, title));
+    }
+
+    /** Kuyruktaki ve çizilmekte olan grafikleri bitirir, havuzu kapatır. */
+    @Override
+    public void close() {
+        ThreadPoolExecutor pool;
+        synchronized (this) {
+            pool = renderPool;
+            if (pool == null) return;
+        }
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(2, TimeUnit.MINUTES)) pool.shutdownNow();
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface Render {
+        Path run() throws IOException;
+    }
+
+    private CompletableFuture<Path> submit(Render render) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return render.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, pool());
+    }
+
+    private synchronized ExecutorService pool() {
+        if (renderPool == null) {
+            AtomicInteger seq = new AtomicInteger();
+            renderPool = new ThreadPoolExecutor(renderThreads, renderThreads, 30, TimeUnit.SECONDS,
+                    // sınırlı kuyruk: dolarsa çizim çağıran thread'de yapılır (geri basınç)
+                    new ArrayBlockingQueue<>(renderThreads * 16),
+                    r -> {
+                        Thread t = new Thread(r, "chart-render-" + seq.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    (r, pool) -> {
+                        if (pool.isShutdown()) throw new RejectedExecutionException("ChartService is closed");
+                        r.run();
+                    });
+            renderPool.allowCoreThreadTimeOut(true);
+        }
+        return renderPool;
+    }
 
     /** Havayoluna göre min/avg/max bar chart (PNG) */
     public Path saveMinAvgMaxBar(Map<String, PriceAggregator.PriceStats> statsByAirline,
@@ -125,6 +224,70 @@ public class ChartService {
         return png;
     }
 
+    /** Fiyat trendi (çizgi): X = capture zamanı, Y = fiyat; her seri bir uçuş (etiket → gözlemler, eskiden yeniye). */
+    public Path savePriceTrend(Map<String, List<PriceHistoryStore.Observation>> series,
+                               Path outDir, String fileName, String title) throws IOException {
+        Files.createDirectories(outDir);
+
+        XYChart chart = new XYChartBuilder()
+                .width(1100).height(650)
+                .title(title)
+                .xAxisTitle("Capture")
+                .yAxisTitle("Fiyat (TRY)")
+                .build();
+        chart.getStyler().setLegendPosition(Styler.LegendPosition.OutsideS);
+        chart.getStyler().setDatePattern("dd.MM HH:mm");
+        chart.getStyler().setXAxisLabelRotation(20);
+
+        for (var e : series.entrySet()) {
+            if (e.getValue().isEmpty()) continue;
+            List<Date> x = new ArrayList<>(e.getValue().size());
+            List<Integer> y = new ArrayList<>(e.getValue().size());
+            for (var o : e.getValue()) {
+                x.add(Date.from(o.capturedAt()));
+                y.add(o.price());
+            }
+            chart.addSeries(e.getKey(), x, y);
+        }
+        if (chart.getSeriesMap().isEmpty()) chart.addSeries("no data", List.of(new Date()), List.of(0));
+
+        Path png = outDir.resolve(fileName);
+        BitmapEncoder.saveBitmap(chart, png.toString(), BitmapEncoder.BitmapFormat.PNG);
+        return png;
+    }
+
+    /** Gün başına gözlenen en düşük fiyat (bar); etiket günün en ucuz havayolunu da gösterir. */
+    public Path saveCheapestPerDay(SortedMap<LocalDate, PriceHistoryStore.Observation> perDay,
+                                   Path outDir, String fileName, String title) throws IOException {
+        Files.createDirectories(outDir);
+
+        List<String> days = new ArrayList<>(perDay.size());
+        List<Integer> prices = new ArrayList<>(perDay.size());
+        for (var e : perDay.entrySet()) {
+            days.add(e.getKey() + " " + e.getValue().airline());
+            prices.add(e.getValue().price());
+        }
+        if (days.isEmpty()) {
+            days.add("no data");
+            prices.add(0);
+        }
+
+        CategoryChart chart = new CategoryChartBuilder()
+                .width(1100).height(650)
+                .title(title)
+                .xAxisTitle("Gün")
+                .yAxisTitle("En düşük fiyat (TRY)")
+                .build();
+        chart.getStyler().setLegendVisible(false);
+        chart.getStyler().setHasAnnotations(true);
+        chart.getStyler().setXAxisLabelRotation(20);
+        chart.addSeries("Min", days, prices);
+
+        Path png = outDir.resolve(fileName);
+        BitmapEncoder.saveBitmap(chart, png.toString(), BitmapEncoder.BitmapFormat.PNG);
+        return png;
+    }
+
     /** slot sayısına göre 24 saati etiketlere çevirir (örn 6 → 00-04, 04-08, ...). */
     public List<String> buildSlotLabels(int slotCount) {
         List<String> labels = new ArrayList<>(slotCount);
@@ -0,0 +1,53 @@
+package analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * [0, n) satır aralığını parçalara bölüp ortak fork-join havuzunda ({@link ForkJoinPool#commonPool()}) işleyen
+ * küçük yardımcı. parallelism parça sayısını belirler; thread sayısı ortak havuzunkidir, kapatılacak havuz yoktur.
+ * Parça sonuçları her zaman parça sırasıyla döner; birleştirme çağıranda, deterministik sırayla yapılır.
+ */
+final class Chunks {
+
+    /** Bunun altındaki satır sayılarında paralelleştirme maliyeti kazancı aşar; tek parça çalışılır. */
+    static final int MIN_PARALLEL_ROWS = 16_384;
+
+    private Chunks() {}
+
+    /** Bir satır aralığını işleyip kısmi sonuç üreten iş. */
+    interface RangeTask<T> {
+        T apply(int lo, int hi);
+    }
+
+    /** Parça işlerinin gönderildiği havuz. */
+    static ForkJoinPool pool() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /** Verilen paralellikte kaç parçaya bölüneceği; 1 ise iş çağıran thread'de çalışır. */
+    static int chunkCount(int n, int parallelism) {
+        if (parallelism <= 1 || n < MIN_PARALLEL_ROWS) return 1;
+        // iş çalma (work-stealing) için thread başına birkaç parça
+        return Math.max(1, Math.min(parallelism * 4, n / (MIN_PARALLEL_ROWS / 4)));
+    }
+
+    /** [0, n) aralığını parçalar, her parçayı havuzda çalıştırır ve sonuçları parça sırasıyla döndürür. */
+    static <T> List<T> map(int n, int parallelism, RangeTask<T> task) {
+        int chunks = chunkCount(n, parallelism);
+        if (chunks == 1) return List.of(task.apply(0, n));
+
+        ForkJoinPool pool = pool();
+        List<ForkJoinTask<T>> running = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int lo = (int) ((long) n * c / chunks);
+            int hi = (int) ((long) n * (c + 1) / chunks);
+            running.add(pool.submit(() -> task.apply(lo, hi)));
+        }
+        List<T> out = new ArrayList<>(chunks);
+        for (ForkJoinTask<T> t : running) out.add(t.join());
+        return out;
+    }
+}
@@ -2,9 +2,9 @@ package analysis;
 
 import com.opencsv.CSVWriter;
 
-import java.io.FileOutputStream;
+import java.io.BufferedWriter;
+import java.io.Flushable;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -16,6 +16,14 @@ import java.util.List;
  */
 public class CsvExporter {
 
+    /** writeFlights / {@link #open} header'ı */
+    public static final String[] FLIGHT_HEADER = {
+            "departure_time","arrival_time","airline","price","currency","duration","stops","score"
+    };
+
+    /** Oturum yazıcısının tampon boyutu (karakter); satır başına sistem çağrısı yapılmaz. */
+    public static final int BUFFER_CHARS = 256 * 1024;
+
     /**
      * Satırları CSV'ye yazar.
      * Eğer includeHeader=true ise, header şu sıradadır:
@@ -23,37 +31,120 @@ public class CsvExporter {
      */
     public static Path writeFlights(List<String[]> rows, Path exportDir,
                                     String fileName, boolean includeHeader) throws IOException {
+        try (Session session = open(exportDir, fileName, includeHeader)) {
+            session.appendAll(rows);
+            return session.path();
+        }
+    }
+
+    /**
+     * Tabloyu CSV'nin makine okuması için olan ikili karşılığı olarak yazar ({@link FlightBinary}, ".fbin").
+     * {@link CsvLoader#loadTable} bu dosyayı metin ayrıştırmadan, bellek eşlemli okur.
+     */
+    public static Path writeBinary(FlightTable table, Path exportDir, String fileName) throws IOException {
+        return FlightBinary.write(table, exportDir.resolve(fileName));
+    }
+
+    /** Dosyayı açar (BOM + isteğe bağlı header yazılır); satırlar {@link Session#append} ile eklenir. */
+    public static Session open(Path exportDir, String fileName, boolean includeHeader) throws IOException {
+        return open(exportDir, fileName, includeHeader, 0);
+    }
+
+    /**
+     * @param flushEveryRows  &gt; 0 ise her bu kadar satırda bir tampon diske boşaltılır
+     *                        (uzun süren bir çıkarma sırasında dosyanın yarısı da okunabilsin diye); 0 = yalnızca tampon dolunca
+     */
+    public static Session open(Path exportDir, String fileName, boolean includeHeader,
+                               int flushEveryRows) throws IOException {
         Files.createDirectories(exportDir);
-        Path out = exportDir.resolve(fileName);
-
-        try (OutputStream os = new FileOutputStream(out.toFile());
-             OutputStreamWriter osw = new OutputStreamWriter(os, StandardCharsets.UTF_8);
-             CSVWriter writer = new CSVWriter(
-                     osw,
-                     ';',                                     // ayraç
-                     CSVWriter.DEFAULT_QUOTE_CHARACTER,
-                     CSVWriter.DEFAULT_ESCAPE_CHARACTER,
-                     CSVWriter.DEFAULT_LINE_END)) {
-
-            // UTF-8 BOM (Excel Türkçe karakterler için)
-            osw.write('\uFEFF');
-
-            if (includeHeader) {
-                writer.writeNext(new String[]{
-                        "departure_time","arrival_time","airline","price","currency","duration","stops","score"
-                });
+        return new Session(exportDir.resolve(fileName), includeHeader, flushEveryRows);
+    }
+
+    /**
+     * Açık bir CSV dosyasına satır satır (ya da toplu) ekleme yapan oturum. Dosya bir kez açılır,
+     * satırlar büyük bir tamponda birikir; {@link #close()} kalanları yazar. Thread-safe değildir.
+     */
+    public static final class Session implements AutoCloseable, Flushable {
+        private final Path path;
+        private final BufferedWriter out;
+        private final CSVWriter writer;
+        private final int flushEveryRows;
+        private long rows;
+        private boolean closed;
+
+        private Session(Path path, boolean includeHeader, int flushEveryRows) throws IOException {
+            this.path = path;
+            this.flushEveryRows = Math.max(0, flushEveryRows);
+            this.out = new BufferedWriter(
+                    new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), BUFFER_CHARS);
+            this.writer = new CSVWriter(
+                    out,
+                    ';',                                     // ayraç
+                    CSVWriter.DEFAULT_QUOTE_CHARACTER,
+                    CSVWriter.DEFAULT_ESCAPE_CHARACTER,
+                    CSVWriter.DEFAULT_LINE_END);
+            try {
+                // UTF-8 BOM (Excel Türkçe karakterler için)
+                out.write('\uFEFF');
+                if (includeHeader) writer.writeNext(FLIGHT_HEADER);
+            } catch (IOException | RuntimeException e) {
+                writer.close();
+                throw e;
             }
+        }
+
+        public Path path() { return path; }
+
+        /** Header hariç yazılan satır sayısı. */
+        public long rowCount() { return rows; }
+
+        /** Tek satır ekler. Çağıranın dizisi değiştirilmez; null hücreler boş string olarak yazılır. */
+        public Session append(String[] row) throws IOException {
+            ensureOpen();
+            if (row == null) return this;   // opencsv null satırı zaten yazmaz
+            writer.writeNext(withoutNulls(row));
+            rows++;
+            if (flushEveryRows > 0 && rows % flushEveryRows == 0) flush();
+            return this;
+        }
+
+        /** Bir grup satırı ekler. */
+        public Session appendAll(Iterable<String[]> batch) throws IOException {
+            for (String[] r : batch) append(r);
+            return this;
+        }
+
+        /** Tampondaki satırları dosyaya yazar. */
+        @Override
+        public void flush() throws IOException {
+            ensureOpen();
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            // CSVWriter.writeNext IOException'ı yutup saklar; kaybolmasın diye kapanışta yüzeye çıkar
+            boolean failed = writer.checkError();
+            IOException cause = writer.getException();
+            writer.close();
+            if (failed) throw cause != null ? cause : new IOException("CSV could not be written: " + path);
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) throw new IOException("CSV session already closed: " + path);
+        }
 
-            for (String[] r : rows) {
-                // null hücreleri boş string yap
-                if (r != null) {
-                    for (int i = 0; i < r.length; i++) {
-                        if (r[i] == null) r[i] = "";
-                    }
-                }
-                writer.writeNext(r);
+        /** null hücreleri boş string yap (yalnızca gerekirse kopya üzerinde) */
+        private static String[] withoutNulls(String[] r) {
+            String[] copy = null;
+            for (int i = 0; i < r.length; i++) {
+                if (r[i] != null) continue;
+                if (copy == null) copy = r.clone();
+                copy[i] = "";
             }
+            return copy == null ? r : copy;
         }
-        return out;
     }
 }
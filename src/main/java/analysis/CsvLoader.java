@@ -5,65 +5,194 @@ import com.opencsv.CSVReaderBuilder;
 import com.opencsv.exceptions.CsvException;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-/** flights CSV'sini (delimiter=';') okuyup FlightCsvRow listesine çevirir. */
+/**
+ * flights CSV'sini (delimiter=';') okuyup FlightCsvRow listesine çevirir.
+ * Yol {@value FlightBinary#EXT} ile bitiyorsa aynı veri ikili biçimden ({@link FlightBinary}) okunur.
+ */
 public class CsvLoader {
 
     /** CSV'yi okur ve satırları parse eder. */
     public List<FlightCsvRow> load(Path csvPath, int slotCount) throws IOException, CsvException {
-        try (BufferedReader br = Files.newBufferedReader(csvPath, StandardCharsets.UTF_8)) {
-            // UTF-8 BOM temizle
-            br.mark(1);
-            if (br.read() != '\uFEFF') br.reset();
-
-            CSVReader reader = new CSVReaderBuilder(br)
-                    .withSkipLines(0)
-                    .withCSVParser(new com.opencsv.CSVParserBuilder()
-                            .withSeparator(';')
-                            .withIgnoreLeadingWhiteSpace(true)
-                            .withIgnoreQuotations(false)
-                            .build())
-                    .build();
-
-            List<String[]> all = reader.readAll();
-            if (all.isEmpty()) return List.of();
-
-            // Başlıkları sütun ismine göre bul (esnek sıraya izin ver)
-            Map<String, Integer> idx = mapHeaderIndexes(all.get(0));
-            List<FlightCsvRow> out = new ArrayList<>();
-
-            for (int i = 1; i < all.size(); i++) {
-                String[] r = all.get(i);
-                if (r == null || r.length == 0) continue;
-
-                String dep   = get(r, idx, "departure_time");
-                String arr   = get(r, idx, "arrival_time");
-                String al    = get(r, idx, "airline");
-                String price = get(r, idx, "price");
-                String cur   = get(r, idx, "currency");   // olabilir/olmayabilir
-                String dur   = get(r, idx, "duration");
-                String st    = get(r, idx, "stops");
-
-                int priceInt   = FlightCsvRow.parsePrice(price);
-                String curr    = FlightCsvRow.normalizeCurrency(cur);
-                int duration   = FlightCsvRow.parseDurationToMin(dur);
-                int stopsCount = FlightCsvRow.parseStops(st);
-                int slot       = FlightCsvRow.timeToSlot(dep, Math.max(1, slotCount));
-
-                out.add(new FlightCsvRow(dep, arr, al, priceInt, curr, duration, stopsCount, slot));
-            }
-            return out;
+        List<FlightCsvRow> out = new ArrayList<>();
+        forEach(csvPath, slotCount, out::add);
+        return out;
+    }
+
+    /**
+     * CSV'yi doğrudan sütun bazlı {@link FlightTable}'a okur; satır başına FlightCsvRow nesnesi oluşturulmaz.
+     */
+    public FlightTable loadTable(Path csvPath, int slotCount) throws IOException, CsvException {
+        if (FlightBinary.isBinary(csvPath)) return FlightBinary.read(csvPath, slotCount);
+        FlightTable.Builder table = new FlightTable.Builder(slotCount);
+        try (RowCursor cursor = new RowCursor(csvPath, slotCount)) {
+            String[] r;
+            while ((r = cursor.nextRecord()) != null) convert(r, cursor.idx, slotCount, table::add);
+        }
+        return table.build();
+    }
+
+    /**
+     * CSV'yi kayıt kayıt okur ve her satırı dönüştürüp sink'e iletir.
+     * Dosyanın tamamı belleğe alınmaz; bellek kullanımı dosya boyutundan bağımsızdır.
+     */
+    public void forEach(Path csvPath, int slotCount, Consumer<? super FlightCsvRow> sink)
+            throws IOException, CsvException {
+        if (FlightBinary.isBinary(csvPath)) {
+            FlightBinary.forEach(csvPath, slotCount, sink);
+            return;
+        }
+        try (RowCursor cursor = new RowCursor(csvPath, slotCount)) {
+            FlightCsvRow row;
+            while ((row = cursor.readNext()) != null) sink.accept(row);
+        }
+    }
+
+    /**
+     * Tembel (lazy) akış: satırlar tüketildikçe okunur. Dosyayı kapatmak için akış kapatılmalıdır
+     * (try-with-resources). Okuma hataları {@link UncheckedIOException} / RuntimeException olarak yükselir.
+     */
+    public Stream<FlightCsvRow> stream(Path csvPath, int slotCount) throws IOException {
+        if (FlightBinary.isBinary(csvPath)) return FlightBinary.stream(csvPath, slotCount);
+        RowCursor cursor;
+        try {
+            cursor = new RowCursor(csvPath, slotCount);
+        } catch (CsvException e) {
+            throw new IOException("CSV header could not be read: " + csvPath, e);
         }
+        Iterator<FlightCsvRow> it = new Iterator<>() {
+            private FlightCsvRow next;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) return true;
+                try {
+                    next = cursor.readNext();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (CsvException e) {
+                    throw new RuntimeException("CSV row could not be parsed: " + csvPath, e);
+                }
+                return next != null;
+            }
+
+            @Override
+            public FlightCsvRow next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                FlightCsvRow r = next;
+                next = null;
+                return r;
+            }
+        };
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::closeQuietly);
     }
 
     // ---------- helpers ----------
 
+    /** Açık bir CSV üzerinde header'ı çözmüş, satırları tek tek dönüştüren imleç. */
+    private final class RowCursor implements Closeable {
+        private final BufferedReader br;
+        private final CSVReader reader;
+        private final int slotCount;
+        private final Map<String, Integer> idx;
+
+        RowCursor(Path csvPath, int slotCount) throws IOException, CsvException {
+            this.slotCount = slotCount;
+            this.br = Files.newBufferedReader(csvPath, StandardCharsets.UTF_8);
+            try {
+                // UTF-8 BOM temizle
+                br.mark(1);
+                if (br.read() != '\uFEFF') br.reset();
+
+                this.reader = new CSVReaderBuilder(br)
+                        .withSkipLines(0)
+                        .withCSVParser(new com.opencsv.CSVParserBuilder()
+                                .withSeparator(';')
+                                .withIgnoreLeadingWhiteSpace(true)
+                                .withIgnoreQuotations(false)
+                                .build())
+                        .build();
+
+                // Başlıkları sütun ismine göre bul (esnek sıraya izin ver)
+                String[] header = reader.readNext();
+                this.idx = header == null ? null : mapHeaderIndexes(header);
+            } catch (IOException | CsvException | RuntimeException e) {
+                br.close();
+                throw e;
+            }
+        }
+
+        /** Sıradaki geçerli satırı döndürür; dosya bittiyse null. */
+        FlightCsvRow readNext() throws IOException, CsvException {
+            String[] r = nextRecord();
+            return r == null ? null : toRow(r, idx, slotCount);
+        }
+
+        /** Sıradaki boş olmayan ham kaydı döndürür; dosya bittiyse null. */
+        String[] nextRecord() throws IOException, CsvException {
+            if (idx == null) return null;
+            String[] r;
+            while ((r = reader.readNext()) != null) {
+                if (r.length == 0) continue;
+                return r;
+            }
+            return null;
+        }
+
+        void closeQuietly() {
+            try {
+                close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /** Dönüştürülmüş alanları alan hedef (FlightCsvRow kurucusu ya da FlightTable.Builder::add). */
+    private interface RowSink<T> {
+        T accept(String dep, String arr, String airline, int price, String currency,
+                 int durationMin, int stopsCount, int timeSlot);
+    }
+
+    private FlightCsvRow toRow(String[] r, Map<String, Integer> idx, int slotCount) {
+        return convert(r, idx, slotCount, FlightCsvRow::new);
+    }
+
+    private <T> T convert(String[] r, Map<String, Integer> idx, int slotCount, RowSink<T> sink) {
+        String dep   = get(r, idx, "departure_time");
+        String arr   = get(r, idx, "arrival_time");
+        String al    = get(r, idx, "airline");
+        String price = get(r, idx, "price");
+        String cur   = get(r, idx, "currency");   // olabilir/olmayabilir
+        String dur   = get(r, idx, "duration");
+        String st    = get(r, idx, "stops");
+
+        int priceInt   = FlightCsvRow.parsePrice(price);
+        String curr    = FlightCsvRow.normalizeCurrency(cur);
+        int duration   = FlightCsvRow.parseDurationToMin(dur);
+        int stopsCount = FlightCsvRow.parseStops(st);
+        int slot       = FlightCsvRow.timeToSlot(dep, Math.max(1, slotCount));
+
+        return sink.accept(dep, arr, al, priceInt, curr, duration, stopsCount, slot);
+    }
+
     private Map<String, Integer> mapHeaderIndexes(String[] headerRow) {
         Map<String, Integer> m = new HashMap<>();
         for (int i = 0; i < headerRow.length; i++) {
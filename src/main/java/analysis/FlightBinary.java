@@ -0,0 +1,327 @@
+package analysis;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Uçuş tablosunun sürümlü ikili biçimi ({@value #EXT}): makineler arası aktarım için CSV'nin yanında yazılır,
+ * okurken metin ayrıştırma yapılmaz. CSV insan okuması / Excel için kalır.
+ *
+ * <pre>
+ * başlık (32 B)   : magic "FBIN", sürüm, slotCount, satır, havayolu, para birimi, ham saat sayısı, geniş değer sayısı
+ * sözlükler       : havayolları, para birimleri (her biri 2 B uzunluk + UTF-8, DataOutput.writeUTF)
+ * ham saatler     : "HH:mm"e dönmeyen saat metinleri: satır (4 B), 0=kalkış/1=varış (1 B), metin (writeUTF)
+ * geniş değerler  : kayıt alanına sığmayan süre / aktarma: satır (4 B), 0=süre/1=aktarma (1 B), değer (4 B)
+ * kayıtlar (16 B) : kalkış dk (2), varış dk (2), fiyat (4), havayolu id (2), süre dk (2),
+ *                   aktarma (1), slot (1), para birimi id (1), 0 (1)
+ * </pre>
+ * Sayılar big-endian. Süre 0..65534, aktarma 0..127 dışındaysa kayıtta işaret değeri (0xFFFF / -128) durur,
+ * gerçek değer geniş değerler tablosundadır. Sürüm 1 dosyalarında bu tablo yoktur (başlıktaki alan 0), aynen okunur.
+ * Okuyucu dosyayı bellek eşlemli açar; {@link #read} kayıtları sütun dizilerine çözer, {@link #forEach} /
+ * {@link #stream} diziye almadan eşlem üzerinde satır satır gezer.
+ */
+public final class FlightBinary {
+
+    public static final String EXT = ".fbin";
+
+    private static final int MAGIC = 0x4642494E;   // "FBIN"
+    static final int VERSION = 2;
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 16;
+
+    // kayıt alanına sığmayan değerin işareti; gerçek değer geniş değerler tablosunda
+    private static final int WIDE_DURATION = 0xFFFF;
+    private static final byte WIDE_STOPS = Byte.MIN_VALUE;
+
+    private FlightBinary() {}
+
+    /** {@code flights_X_Y.csv} → {@code flights_X_Y.fbin} (aynı klasör). */
+    public static Path siblingOf(Path csv) {
+        String name = csv.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return csv.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + EXT);
+    }
+
+    public static boolean isBinary(Path file) {
+        return file.getFileName().toString().endsWith(EXT);
+    }
+
+    /**
+     * Tabloyu yazar (önce geçici dosyaya, sonra yerine taşınır).
+     *
+     * Aralık dışı süre ve aktarma sayıları geniş değerler tablosuna yazılır, kırpılmaz.
+     *
+     * @throws IllegalArgumentException sözlük ya da slot sayısı başlığa sığmıyorsa
+     *                                  (65535'ten fazla havayolu, 255'ten fazla para birimi, 127'den fazla slot)
+     */
+    public static Path write(FlightTable t, Path file) throws IOException {
+        check(t.airlines.size() <= 0xFFFF, "airline count", t.airlines.size());
+        check(t.currencies.size() <= 0xFF, "currency count", t.currencies.size());
+        check(t.slotCount <= Byte.MAX_VALUE, "slotCount", t.slotCount);
+
+        int wide = 0;
+        for (int i = 0; i < t.size; i++) {
+            if (wideDuration(t.durationMin[i])) wide++;
+            if (wideStops(t.stopsCount[i])) wide++;
+        }
+
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".part");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(t.slotCount);
+                out.writeInt(t.size);
+                out.writeInt(t.airlines.size());
+                out.writeInt(t.currencies.size());
+                out.writeInt(t.rawDeparture.size() + t.rawArrival.size());
+                out.writeInt(wide);
+
+                for (String a : t.airlines) out.writeUTF(a);
+                for (String c : t.currencies) out.writeUTF(c);
+                writeRaw(out, t.rawDeparture, 0);
+                writeRaw(out, t.rawArrival, 1);
+                for (int i = 0; i < t.size; i++) {
+                    if (wideDuration(t.durationMin[i])) writeWide(out, i, 0, t.durationMin[i]);
+                    if (wideStops(t.stopsCount[i])) writeWide(out, i, 1, t.stopsCount[i]);
+                }
+
+                for (int i = 0; i < t.size; i++) {
+                    out.writeShort(t.departureMin[i]);
+                    out.writeShort(t.arrivalMin[i]);
+                    out.writeInt(t.price[i]);
+                    out.writeShort(t.airlineId[i]);
+                    out.writeShort(wideDuration(t.durationMin[i]) ? WIDE_DURATION : t.durationMin[i]);
+                    out.writeByte(wideStops(t.stopsCount[i]) ? WIDE_STOPS : t.stopsCount[i]);
+                    out.writeByte(t.timeSlot[i]);
+                    out.writeByte(t.currencyId[i]);
+                    out.writeByte(0);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return file;
+    }
+
+    /**
+     * Dosyayı bellek eşlemli okur ve sütun dizilerine çözer.
+     *
+     * @param slotCount dosyadakinden farklıysa zaman dilimleri kalkış dakikasından yeniden hesaplanır
+     *                  ({@link FlightCsvRow#timeToSlot} ile aynı sonuç)
+     */
+    public static FlightTable read(Path file, int slotCount) throws IOException {
+        Mapped m = open(file, slotCount);
+        int n = m.size;
+        short[] dep = new short[n];
+        short[] arr = new short[n];
+        int[] price = new int[n];
+        int[] airlineId = new int[n];
+        int[] duration = new int[n];
+        int[] stops = new int[n];
+        int[] slot = new int[n];
+        int[] currencyId = new int[n];
+        try {
+            for (int i = 0; i < n; i++) {
+                int p = m.checkedPosition(i);
+                dep[i] = m.buf.getShort(p);
+                arr[i] = m.buf.getShort(p + 2);
+                price[i] = m.buf.getInt(p + 4);
+                airlineId[i] = m.buf.getShort(p + 8) & 0xFFFF;
+                duration[i] = m.duration(i, p);
+                stops[i] = m.stops(i, p);
+                slot[i] = m.slot(dep[i], p);
+                currencyId[i] = m.buf.get(p + 14) & 0xFF;
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated flight snapshot: " + file, e);
+        }
+        return new FlightTable(n, m.slotCount, dep, arr, airlineId, price, currencyId, duration, stops, slot,
+                m.airlines, m.currencies, m.rawDeparture, m.rawArrival);
+    }
+
+    /**
+     * Kayıtları sütun dizilerine almadan, eşlem üzerinde sırayla {@code sink}'e iletir; bellekte yalnızca
+     * sözlükler durur ({@link CsvLoader#forEach} ile aynı sözleşme).
+     */
+    public static void forEach(Path file, int slotCount, Consumer<? super FlightCsvRow> sink) throws IOException {
+        Mapped m = open(file, slotCount);
+        for (int i = 0; i < m.size; i++) sink.accept(m.row(i));
+    }
+
+    /**
+     * Tembel akış: satırlar tüketildikçe eşlemden çözülür. Başlık ve sözlükler burada okunur;
+     * kayıt hataları akış tüketilirken {@link UncheckedIOException} olarak yükselir.
+     */
+    public static Stream<FlightCsvRow> stream(Path file, int slotCount) throws IOException {
+        Mapped m = open(file, slotCount);
+        return IntStream.range(0, m.size).mapToObj(i -> {
+            try {
+                return m.row(i);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static Mapped open(Path file, int slotCount) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            // eşlem kanal kapandıktan sonra da geçerli kalır
+            return new Mapped(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()), file, Math.max(1, slotCount));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated flight snapshot: " + file, e);
+        }
+    }
+
+    /** Çözülmüş başlık + sözlükler ve eşlenmiş kayıt bölgesi; kayıtlar istendikçe okunur. */
+    private static final class Mapped {
+        final ByteBuffer buf;
+        final Path file;
+        final int size;
+        final int slotCount;
+        final List<String> airlines;
+        final List<String> currencies;
+        final Map<Integer, String> rawDeparture = new HashMap<>();
+        final Map<Integer, String> rawArrival = new HashMap<>();
+        final Map<Integer, Integer> wideDuration = new HashMap<>();
+        final Map<Integer, Integer> wideStops = new HashMap<>();
+        private final int base;
+        private final boolean reslot;
+        private final int bucketSize;
+
+        Mapped(ByteBuffer buf, Path file, int slotCount) throws IOException {
+            this.buf = buf;
+            this.file = file;
+            this.slotCount = slotCount;
+            if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC) throw new IOException("Not a flight snapshot: " + file);
+            int version = buf.getInt();
+            if (version < 1 || version > VERSION) throw new IOException("Unsupported flight snapshot version " + version + ": " + file);
+            int fileSlots = buf.getInt();
+            int n = buf.getInt();
+            int airlineCount = buf.getInt();
+            int currencyCount = buf.getInt();
+            int rawCount = buf.getInt();
+            int wideCount = buf.getInt();   // sürüm 1'de her zaman 0
+            if (n < 0 || airlineCount < 0 || currencyCount < 0 || rawCount < 0 || wideCount < 0) {
+                throw new IOException("Corrupt flight snapshot header: " + file);
+            }
+
+            airlines = new ArrayList<>(airlineCount);
+            for (int k = 0; k < airlineCount; k++) airlines.add(readUtf(buf));
+            currencies = new ArrayList<>(currencyCount);
+            for (int k = 0; k < currencyCount; k++) currencies.add(readUtf(buf));
+            for (int k = 0; k < rawCount; k++) {
+                int row = buf.getInt();
+                byte which = buf.get();
+                (which == 0 ? rawDeparture : rawArrival).put(row, readUtf(buf));
+            }
+            for (int k = 0; k < wideCount; k++) {
+                int row = buf.getInt();
+                byte which = buf.get();
+                (which == 0 ? wideDuration : wideStops).put(row, buf.getInt());
+            }
+            if ((long) n * RECORD_BYTES > buf.remaining()) throw new IOException("Truncated flight snapshot: " + file);
+
+            this.size = n;
+            this.base = buf.position();
+            this.reslot = fileSlots != slotCount;
+            this.bucketSize = (24 * 60) / slotCount;
+        }
+
+        /** i. kaydın konumu; sözlük id'leri doğrulanmış. */
+        int checkedPosition(int i) throws IOException {
+            int p = base + i * RECORD_BYTES;
+            if ((buf.getShort(p + 8) & 0xFFFF) >= airlines.size() || (buf.get(p + 14) & 0xFF) >= currencies.size()) {
+                throw new IOException("Record " + i + " references an unknown dictionary entry: " + file);
+            }
+            return p;
+        }
+
+        int duration(int i, int p) throws IOException {
+            int d = buf.getShort(p + 10) & 0xFFFF;
+            return d == WIDE_DURATION ? wide(wideDuration, i, "duration") : d;
+        }
+
+        int stops(int i, int p) throws IOException {
+            byte s = buf.get(p + 12);
+            return s == WIDE_STOPS ? wide(wideStops, i, "stops") : s;
+        }
+
+        int slot(short dep, int p) {
+            return reslot ? (dep < 0 || bucketSize == 0 ? 0 : Math.min(slotCount - 1, dep / bucketSize)) : buf.get(p + 13);
+        }
+
+        /** {@link FlightTable#row} ile aynı satır, sütun dizisi kurmadan. */
+        FlightCsvRow row(int i) throws IOException {
+            try {
+                int p = checkedPosition(i);
+                short dep = buf.getShort(p);
+                return new FlightCsvRow(FlightTable.timeText(dep, rawDeparture.get(i)),
+                        FlightTable.timeText(buf.getShort(p + 2), rawArrival.get(i)),
+                        airlines.get(buf.getShort(p + 8) & 0xFFFF), buf.getInt(p + 4),
+                        currencies.get(buf.get(p + 14) & 0xFF), duration(i, p), stops(i, p), slot(dep, p));
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IOException("Truncated flight snapshot: " + file, e);
+            }
+        }
+
+        private int wide(Map<Integer, Integer> values, int i, String field) throws IOException {
+            Integer v = values.get(i);
+            if (v == null) throw new IOException("Record " + i + " has no wide " + field + " value: " + file);
+            return v;
+        }
+    }
+
+    // ---------- helpers ----------
+
+    private static void writeRaw(DataOutputStream out, Map<Integer, String> raw, int which) throws IOException {
+        // satır sırasıyla: aynı tablo her zaman aynı baytları üretsin
+        for (int row : new TreeSet<>(raw.keySet())) {
+            out.writeInt(row);
+            out.writeByte(which);
+            out.writeUTF(raw.get(row));
+        }
+    }
+
+    /** {@code DataOutput.writeUTF} ile yazılmış metni okur (sözlükler küçük; kopya maliyeti önemsiz). */
+    private static String readUtf(ByteBuffer buf) throws IOException {
+        int len = buf.getShort(buf.position()) & 0xFFFF;
+        byte[] bytes = new byte[2 + len];
+        buf.get(bytes);
+        return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+    }
+
+    private static void writeWide(DataOutputStream out, int row, int which, int value) throws IOException {
+        out.writeInt(row);
+        out.writeByte(which);
+        out.writeInt(value);
+    }
+
+    // 0xFFFF ve -128 işaret değeri olarak ayrıldı
+    private static boolean wideDuration(int d) { return d < 0 || d >= WIDE_DURATION; }
+
+    private static boolean wideStops(int s) { return s < 0 || s > Byte.MAX_VALUE; }
+
+    private static void check(boolean ok, String field, int value) {
+        if (!ok) throw new IllegalArgumentException("Flight snapshot cannot store " + field + "=" + value);
+    }
+}
@@ -1,15 +1,11 @@
 package analysis;
 
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 import java.util.Objects;
 
 /** CSV'deki tek satırı temsil eder ve metinleri sayısal alanlara dönüştürür. */
 public class FlightCsvRow {
 
-    private static final DateTimeFormatter HH_MM = DateTimeFormatter.ofPattern("HH:mm");
-
     public final String departureTime;   // "06:45"
     public final String arrivalTime;     // "07:55"
     public final String airline;         // "Pegasus"
@@ -40,50 +36,67 @@ public class FlightCsvRow {
     }
 
     // ---------- statik parser yardımcıları ----------
+    // Hepsi karakter karakter tarar; regex, ara String ya da Locale nesnesi oluşturmaz.
+    // Davranış eski regex/LocalTime tabanlı sürümlerle birebir aynıdır (bkz. FlightCsvRowParsersTest).
 
     /** "1sa 35dk" → 95, "2sa"→120, "50dk"→50 */
     public static int parseDurationToMin(String s) {
         if (s == null) return 0;
-        String t = s.toLowerCase(new Locale("tr", "TR")).replaceAll("\\s+", "");
-        int h = 0, m = 0;
-        // saat
-        var mh = java.util.regex.Pattern.compile("(\\d+)\\s*sa").matcher(t);
-        if (mh.find()) h = Integer.parseInt(mh.group(1));
-        // dakika
-        var mm = java.util.regex.Pattern.compile("(\\d+)\\s*dk").matcher(t);
-        if (mm.find()) m = Integer.parseInt(mm.group(1));
-        if (h == 0 && m == 0) {
+        // boşluklar yok sayılır ("1 sa 3 5dk" == "1sa35dk"), harfler tr-TR küçük harfe göre eşlenir
+        int h = numberBefore(s, 's', 'a');
+        int m = numberBefore(s, 'd', 'k');
+        if (h <= 0 && m <= 0) {
             // "1g 2sa 5dk" gibi beklenmeyen bir değer gelirse; yalnızca sayıları topla (emin değilsek)
-            var numbers = java.util.regex.Pattern.compile("\\d+").matcher(t);
-            int sum = 0; while (numbers.find()) sum += Integer.parseInt(numbers.group());
-            return sum; // worst-case
+            return sumOfNumbers(s); // worst-case
         }
-        return h * 60 + m;
+        return Math.max(h, 0) * 60 + Math.max(m, 0);
     }
 
     /** "Direkt Uçuş"->0, "1 Aktarma"->1, "2 Aktarma"->2 ... */
     public static int parseStops(String s) {
         if (s == null || s.isBlank()) return 0;
-        String t = s.toLowerCase(new Locale("tr", "TR")).trim();
-        if (t.contains("direkt")) return 0;
-        var m = java.util.regex.Pattern.compile("(\\d+)\\s*aktarma").matcher(t);
-        return m.find() ? Integer.parseInt(m.group(1)) : 0;
+        if (containsTr(s, "direkt")) return 0;
+        int n = s.length();
+        int i = 0;
+        while (i < n) {
+            if (!isDigit(s.charAt(i))) { i++; continue; }
+            int start = i;
+            while (i < n && isDigit(s.charAt(i))) i++;
+            int end = i;
+            int j = i;
+            while (j < n && isRegexSpace(s.charAt(j))) j++;
+            if (matchesTrAt(s, j, "aktarma") >= 0) return parseRun(s, start, end, false);
+        }
+        return 0;
     }
 
     /** "19:05" → slot index. slotCount=6 ise 4 saatlik bloklar (00-04,04-08,...) */
     public static int timeToSlot(String hhmm, int slotCount) {
-        try {
-            LocalTime lt = LocalTime.parse(hhmm, HH_MM);
-            int minutes = lt.getHour() * 60 + lt.getMinute();
-            int bucketSize = (24 * 60) / Math.max(1, slotCount);
-            return Math.min(slotCount - 1, minutes / bucketSize);
-        } catch (Exception e) {
-            return 0;
-        }
+        int minutes = minuteOfDay(hhmm);
+        int bucketSize = (24 * 60) / Math.max(1, slotCount);
+        if (minutes < 0 || bucketSize == 0) return 0;
+        return Math.min(slotCount - 1, minutes / bucketSize);
+    }
+
+    /**
+     * "19:05" → 1145 (gün içi dakika); parse edilemezse -1.
+     * Tam olarak "HH:mm" kabul edilir; "24:00" (LocalTime SMART çözümlemesindeki gibi) 00:00 sayılır.
+     */
+    public static int minuteOfDay(String hhmm) {
+        if (hhmm == null || hhmm.length() != 5 || hhmm.charAt(2) != ':') return -1;
+        char h1 = hhmm.charAt(0), h2 = hhmm.charAt(1), m1 = hhmm.charAt(3), m2 = hhmm.charAt(4);
+        if (!isDigit(h1) || !isDigit(h2) || !isDigit(m1) || !isDigit(m2)) return -1;
+        int h = (h1 - '0') * 10 + (h2 - '0');
+        int m = (m1 - '0') * 10 + (m2 - '0');
+        if (m > 59) return -1;
+        if (h == 24 && m == 0) return 0;
+        if (h > 23) return -1;
+        return h * 60 + m;
     }
 
     /** "TL"/"TRY" normalize. Boşsa "TRY". */
     public static String normalizeCurrency(String s) {
+        if ("TRY".equals(s)) return "TRY";
         if (s == null || s.isBlank()) return "TRY";
         String t = s.trim().toUpperCase(Locale.ROOT);
         if (Objects.equals(t, "TL")) return "TRY";
@@ -93,7 +106,122 @@ public class FlightCsvRow {
     /** "838", "1.010", "1 010" → 838/1010. */
     public static int parsePrice(String s) {
         if (s == null) return 0;
-        String digits = s.replaceAll("[^0-9]", "");
-        return digits.isEmpty() ? 0 : Integer.parseInt(digits);
+        long v = 0;
+        boolean any = false;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) continue;
+            any = true;
+            v = v * 10 + (c - '0');
+            if (v > Integer.MAX_VALUE) throw new NumberFormatException("Price out of int range: " + s);
+        }
+        return any ? (int) v : 0;
+    }
+
+    // ---------- tarama yardımcıları ----------
+
+    private static boolean isDigit(char c) { return c >= '0' && c <= '9'; }
+
+    /** java.util.regex {@code \s} kümesi: [ \t\n\x0B\f\r] */
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** Tek karakter için {@code toLowerCase(tr-TR)}: 'I' → 'ı', 'İ' → 'i', diğerleri Unicode küçük harf. */
+    private static char lowerTr(char c) {
+        if (c == 'I') return 'ı';
+        if (c == 'İ') return 'i';
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * s[from..] tr-TR küçük harfe çevrildiğinde {@code word} ile başlıyorsa tüketilen uzunluğu, değilse -1 döner.
+     * tr-TR kuralı: "I" + U+0307 (birleşik üst nokta) tek bir 'i' olur.
+     */
+    private static int matchesTrAt(String s, int from, String word) {
+        int i = from, n = s.length();
+        for (int k = 0; k < word.length(); k++) {
+            if (i >= n) return -1;
+            char c = s.charAt(i);
+            if (c == 'I' && i + 1 < n && s.charAt(i + 1) == '\u0307') {
+                if (word.charAt(k) != 'i') return -1;
+                i += 2;
+                continue;
+            }
+            if (lowerTr(c) != word.charAt(k)) return -1;
+            i++;
+        }
+        return i - from;
+    }
+
+    private static boolean containsTr(String s, String word) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (matchesTrAt(s, i, word) >= 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Boşluklar silinmiş metinde {@code (\d+)<c1><c2>} kalıbının ilk eşleşmesindeki sayı; yoksa -1.
+     * Rakam dizileri ve harfler arasındaki regex boşlukları atlanır.
+     */
+    private static int numberBefore(String s, char c1, char c2) {
+        int n = s.length();
+        int i = 0;
+        while (i < n) {
+            if (!isDigit(s.charAt(i))) { i++; continue; }
+            int start = i;
+            i = skipDigitsAndSpaces(s, i);
+            int j = i;
+            if (j < n && lowerTr(s.charAt(j)) == c1) {
+                j++;
+                while (j < n && isRegexSpace(s.charAt(j))) j++;
+                if (j < n && lowerTr(s.charAt(j)) == c2) return parseRun(s, start, i, true);
+            }
+        }
+        return -1;
+    }
+
+    /** Boşluklar silinmiş metindeki tüm rakam dizilerinin toplamı (int taşması regex sürümündeki gibi sarar). */
+    private static int sumOfNumbers(String s) {
+        int n = s.length();
+        int sum = 0;
+        int i = 0;
+        while (i < n) {
+            if (!isDigit(s.charAt(i))) { i++; continue; }
+            int start = i;
+            i = skipDigitsAndSpaces(s, i);
+            sum += parseRun(s, start, i, true);
+        }
+        return sum;
+    }
+
+    /** i'deki rakamdan itibaren rakam ve boşlukları geçer; son rakamdan sonraki boşluk olmayan konumu döndürür. */
+    private static int skipDigitsAndSpaces(String s, int i) {
+        int n = s.length();
+        int afterDigits = i;
+        while (i < n) {
+            char c = s.charAt(i);
+            if (isDigit(c)) afterDigits = ++i;
+            else if (isRegexSpace(c)) i++;
+            else break;
+        }
+        while (afterDigits < n && isRegexSpace(s.charAt(afterDigits))) afterDigits++;
+        return afterDigits;
+    }
+
+    /** [start, end) aralığındaki rakamları (istenirse boşlukları atlayarak) int'e çevirir; taşmada Integer.parseInt gibi hata verir. */
+    private static int parseRun(String s, int start, int end, boolean skipSpaces) {
+        long v = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                if (skipSpaces && isRegexSpace(c)) continue;
+                break;
+            }
+            v = v * 10 + (c - '0');
+            if (v > Integer.MAX_VALUE) throw new NumberFormatException("For input string: \"" + s.substring(start, end) + "\"");
+        }
+        return (int) v;
     }
 }
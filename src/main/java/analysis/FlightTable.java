@@ -0,0 +1,198 @@
+package analysis;
+
+import java.util.*;
+
+/**
+ * Uçuş satırlarının sütun bazlı (columnar) temsili: her alan ayrı bir primitive dizide tutulur.
+ * Havayolu ve para birimi sözlükle kodlanır (id → isim), saatler gün içi dakika olarak saklanır.
+ * Milyonlarca satırda {@code List<FlightCsvRow>}'a göre çok daha az nesne/pointer içerir.
+ */
+public class FlightTable {
+
+    /** Saat bilinmiyor / parse edilemedi. */
+    public static final short NO_TIME = -1;
+
+    public final int size;
+    public final int slotCount;
+
+    public final short[] departureMin;   // 06:45 -> 405, bilinmiyorsa NO_TIME
+    public final short[] arrivalMin;
+    public final int[] airlineId;        // airlines.get(id)
+    public final int[] price;
+    public final int[] currencyId;       // currencies.get(id)
+    public final int[] durationMin;
+    public final int[] stopsCount;
+    public final int[] timeSlot;
+
+    /** id → havayolu adı (trim edilmiş). */
+    public final List<String> airlines;
+    /** id → para birimi ("TRY" ...). */
+    public final List<String> currencies;
+
+    // "HH:mm" biçimine geri dönmeyen saat metinleri (ör. boş/bozuk); satırı birebir geri kurmak için
+    // (paket içi: FlightBinary bunları da yazar)
+    final Map<Integer, String> rawDeparture;
+    final Map<Integer, String> rawArrival;
+
+    private FlightTable(Builder b) {
+        this.size = b.size;
+        this.slotCount = b.slotCount;
+        this.departureMin = Arrays.copyOf(b.departureMin, b.size);
+        this.arrivalMin = Arrays.copyOf(b.arrivalMin, b.size);
+        this.airlineId = Arrays.copyOf(b.airlineId, b.size);
+        this.price = Arrays.copyOf(b.price, b.size);
+        this.currencyId = Arrays.copyOf(b.currencyId, b.size);
+        this.durationMin = Arrays.copyOf(b.durationMin, b.size);
+        this.stopsCount = Arrays.copyOf(b.stopsCount, b.size);
+        this.timeSlot = Arrays.copyOf(b.timeSlot, b.size);
+        this.airlines = List.copyOf(b.airlines);
+        this.currencies = List.copyOf(b.currencies);
+        this.rawDeparture = Map.copyOf(b.rawDeparture);
+        this.rawArrival = Map.copyOf(b.rawArrival);
+    }
+
+    /** Hazır sütunlardan (ör. {@link FlightBinary} okuyucusu); diziler kopyalanmaz, tam {@code size} uzunlukta olmalı. */
+    FlightTable(int size, int slotCount, short[] departureMin, short[] arrivalMin, int[] airlineId, int[] price,
+                int[] currencyId, int[] durationMin, int[] stopsCount, int[] timeSlot,
+                List<String> airlines, List<String> currencies,
+                Map<Integer, String> rawDeparture, Map<Integer, String> rawArrival) {
+        this.size = size;
+        this.slotCount = slotCount;
+        this.departureMin = departureMin;
+        this.arrivalMin = arrivalMin;
+        this.airlineId = airlineId;
+        this.price = price;
+        this.currencyId = currencyId;
+        this.durationMin = durationMin;
+        this.stopsCount = stopsCount;
+        this.timeSlot = timeSlot;
+        this.airlines = List.copyOf(airlines);
+        this.currencies = List.copyOf(currencies);
+        this.rawDeparture = Map.copyOf(rawDeparture);
+        this.rawArrival = Map.copyOf(rawArrival);
+    }
+
+    /** Mevcut satır listesini sütunlara çevirir. */
+    public static FlightTable of(List<FlightCsvRow> rows, int slotCount) {
+        Builder b = new Builder(slotCount, rows.size());
+        for (FlightCsvRow r : rows) b.add(r);
+        return b.build();
+    }
+
+    public String airline(int i) { return airlines.get(airlineId[i]); }
+
+    public boolean isDirect(int i) { return stopsCount[i] == 0; }
+
+    public String departureTime(int i) { return timeText(departureMin[i], rawDeparture.get(i)); }
+
+    public String arrivalTime(int i) { return timeText(arrivalMin[i], rawArrival.get(i)); }
+
+    /** i. satırı nesne olarak kurar (yalnızca çıktı yazımı gibi seyrek ihtiyaçlar için). */
+    public FlightCsvRow row(int i) {
+        return new FlightCsvRow(departureTime(i), arrivalTime(i), airline(i), price[i],
+                currencies.get(currencyId[i]), durationMin[i], stopsCount[i], timeSlot[i]);
+    }
+
+    static String timeText(short minutes, String raw) {
+        if (raw != null) return raw;
+        if (minutes == NO_TIME) return "";
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    /** Satır satır doldurulan, kapasitesi gerektikçe büyüyen yapıcı. */
+    public static class Builder {
+        private final int slotCount;
+        private int size;
+
+        private short[] departureMin;
+        private short[] arrivalMin;
+        private int[] airlineId;
+        private int[] price;
+        private int[] currencyId;
+        private int[] durationMin;
+        private int[] stopsCount;
+        private int[] timeSlot;
+
+        private final List<String> airlines = new ArrayList<>();
+        private final Map<String, Integer> airlineIds = new HashMap<>();
+        private final List<String> currencies = new ArrayList<>();
+        private final Map<String, Integer> currencyIds = new HashMap<>();
+        private final Map<Integer, String> rawDeparture = new HashMap<>();
+        private final Map<Integer, String> rawArrival = new HashMap<>();
+
+        public Builder(int slotCount) {
+            this(slotCount, 1024);
+        }
+
+        public Builder(int slotCount, int initialCapacity) {
+            this.slotCount = slotCount;
+            int cap = Math.max(16, initialCapacity);
+            departureMin = new short[cap];
+            arrivalMin = new short[cap];
+            airlineId = new int[cap];
+            price = new int[cap];
+            currencyId = new int[cap];
+            durationMin = new int[cap];
+            stopsCount = new int[cap];
+            timeSlot = new int[cap];
+        }
+
+        public Builder add(FlightCsvRow r) {
+            return add(r.departureTime, r.arrivalTime, r.airline, r.price, r.currency,
+                    r.durationMin, r.stopsCount, r.timeSlot);
+        }
+
+        public Builder add(String departureTime, String arrivalTime, String airline, int price,
+                           String currency, int durationMin, int stopsCount, int timeSlot) {
+            ensureCapacity(size + 1);
+            int i = size;
+            departureMin[i] = encodeTime(departureTime, i, rawDeparture);
+            arrivalMin[i] = encodeTime(arrivalTime, i, rawArrival);
+            airlineId[i] = intern(airline == null ? "" : airline.trim(), airlines, airlineIds);
+            this.price[i] = price;
+            currencyId[i] = intern(currency == null ? "" : currency.trim(), currencies, currencyIds);
+            this.durationMin[i] = durationMin;
+            this.stopsCount[i] = stopsCount;
+            this.timeSlot[i] = timeSlot;
+            size++;
+            return this;
+        }
+
+        public int size() { return size; }
+
+        public FlightTable build() {
+            return new FlightTable(this);
+        }
+
+        private static short encodeTime(String hhmm, int row, Map<Integer, String> raw) {
+            int m = FlightCsvRow.minuteOfDay(hhmm);
+            // minuteOfDay yalnızca sıfır dolgulu "HH:mm" kabul eder; geri yazımı farklı olan tek geçerli girdi "24:00"
+            boolean canonical = m < 0 ? hhmm == null || hhmm.isEmpty() : hhmm.charAt(0) != '2' || hhmm.charAt(1) != '4';
+            if (!canonical) raw.put(row, hhmm);
+            return m < 0 ? NO_TIME : (short) m;
+        }
+
+        private static int intern(String s, List<String> names, Map<String, Integer> ids) {
+            Integer id = ids.get(s);
+            if (id == null) {
+                id = names.size();
+                names.add(s);
+                ids.put(s, id);
+            }
+            return id;
+        }
+
+        private void ensureCapacity(int min) {
+            if (min <= price.length) return;
+            int cap = Math.max(min, price.length + (price.length >> 1));
+            departureMin = Arrays.copyOf(departureMin, cap);
+            arrivalMin = Arrays.copyOf(arrivalMin, cap);
+            airlineId = Arrays.copyOf(airlineId, cap);
+            price = Arrays.copyOf(price, cap);
+            currencyId = Arrays.copyOf(currencyId, cap);
+            durationMin = Arrays.copyOf(durationMin, cap);
+            stopsCount = Arrays.copyOf(stopsCount, cap);
+            timeSlot = Arrays.copyOf(timeSlot, cap);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package analysis;
+
+/**
+ * {@link ScoreModel.Linear} toplu çekirdeği: sütun dizileri üzerinde tek, dallanmasız döngü.
+ * C2 bu döngüyü zaten SIMD'e çeviriyor ve iş bellek bant genişliği sınırında; ayrı bir Vector API sürümü
+ * ısınmış JIT'te aynı hızda, ısınana kadar ise belirgin yavaş ölçüldü.
+ */
+final class LinearKernel {
+
+    private LinearKernel() {}
+
+    static void score(int[] price, int[] durationMin, int[] stopsCount, int n,
+                      int alpha, int stopPenalty, int directBonus, double[] out) {
+        for (int i = 0; i < n; i++) {
+            int s = stopsCount[i];
+            out[i] = price[i] + alpha * durationMin[i] + stopPenalty * s - (s == 0 ? directBonus : 0);
+        }
+    }
+}
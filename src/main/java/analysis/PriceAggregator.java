@@ -1,11 +1,37 @@
 package analysis;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-/** Havayoluna göre min/max/avg fiyat özetleri ve heatmap verisi üretir. */
+/**
+ * Havayoluna göre min/max/avg fiyat özetleri ve heatmap verisi üretir.
+ * parallelism > 1 ise büyük girdiler parçalara bölünüp fork-join havuzunda işlenir; parça sonuçları
+ * sırayla birleştirildiği için count/min/max ve sıralama sıralı yol ile birebir aynıdır.
+ */
 public class PriceAggregator {
 
+    /**
+     * Havayolu sırası: büyük-küçük harf duyarsız ad, eşitlikte ("Pegasus" / "PEGASUS") doğal sıra. Eşitlik
+     * kırılmazsa sıra girdinin / HashMap'in gezinme sırasına kalır ve yollar arasında değişir.
+     */
+    static final Comparator<String> AIRLINE_ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final int parallelism;
+
+    public PriceAggregator() {
+        this(1);
+    }
+
+    /** @param parallelism paralel parça işleme derecesi (ör. config: analysis.parallelism); 1 = sıralı */
+    public PriceAggregator(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
     /** Tek havayolu için özet istatistik */
     public static class PriceStats {
         public final String airline;
@@ -13,36 +39,325 @@ public class PriceAggregator {
         public final int min;
         public final int max;
         public final double avg;
+        public final double stddev;   // popülasyon standart sapması
+        public final double p50;      // medyan (doğrusal interpolasyon); hesaplanmadıysa NaN
+        public final double p90;
 
         public PriceStats(String airline, int count, int min, int max, double avg) {
+            this(airline, count, min, max, avg, Double.NaN, Double.NaN, Double.NaN);
+        }
+
+        public PriceStats(String airline, int count, int min, int max, double avg,
+                          double stddev, double p50, double p90) {
             this.airline = airline;
             this.count = count;
             this.min = min;
             this.max = max;
             this.avg = avg;
+            this.stddev = stddev;
+            this.p50 = p50;
+            this.p90 = p90;
         }
     }
 
-    /** Havayoluna göre min/max/avg hesapla. */
+    /**
+     * Havayoluna göre min/max/avg/stddev/p50/p90 hesapla.
+     * Tek geçiş: havayolu adı bir kez id'ye çevrilir, sayaçlar id ile indekslenen primitive dizilerde toplanır.
+     */
     public Map<String, PriceStats> summarizeByAirline(List<FlightCsvRow> rows) {
-        Map<String, List<FlightCsvRow>> byAirline = rows.stream()
-                .collect(Collectors.groupingBy(r -> safe(r.airline)));
+        int n = rows.size();
+        int[] rowIds = new int[n];
+        int[] prices = new int[n];
+        // rastgele erişimsiz listeler (LinkedList) parçalanmaz
+        int par = rows instanceof RandomAccess ? parallelism : 1;
+        List<InternedChunk> parts = Chunks.map(n, par, (lo, hi) -> intern(rows, lo, hi, rowIds, prices));
+
+        // Parçaları sırayla birleştir: global id'ler ilk görülme sırasıyla verilir (sıralı yol ile aynı)
+        Map<String, Integer> ids = new HashMap<>();
+        AirlineAccumulator acc = new AirlineAccumulator(8);
+        for (InternedChunk part : parts) {
+            int[] remap = new int[part.names.size()];
+            boolean identity = true;
+            for (int k = 0; k < remap.length; k++) {
+                String a = part.names.get(k);
+                Integer id = ids.get(a);
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(a, id);
+                }
+                remap[k] = id;
+                identity &= id == k;
+            }
+            acc.merge(part.acc, remap);
+            if (!identity) {
+                for (int i = part.lo; i < part.hi; i++) rowIds[i] = remap[rowIds[i]];
+            }
+        }
 
+        // Havayolu adlarına göre deterministik sırala (eşitlikte HashMap gruplama sırası korunur)
+        List<String> keys = new ArrayList<>(ids.keySet());
+        keys.sort(AIRLINE_ORDER);
+
+        int[] offsets = acc.sortPricesById(rowIds, prices, n, parallelism);
         Map<String, PriceStats> out = new LinkedHashMap<>();
-        byAirline.forEach((airline, list) -> {
-            int count = list.size();
-            int min = list.stream().mapToInt(r -> r.price).min().orElse(0);
-            int max = list.stream().mapToInt(r -> r.price).max().orElse(0);
-            double avg = list.stream().mapToInt(r -> r.price).average().orElse(0.0);
-            out.put(airline, new PriceStats(airline, count, min, max, avg));
+        for (String airline : keys) {
+            int id = ids.get(airline);
+            out.put(airline, acc.stats(id, airline, prices, offsets[id]));
+        }
+        return out;
+    }
+
+    /** Sütun bazlı tablo üzerinde havayolu özetleri; satır nesnesi oluşturmadan, id dizileriyle. */
+    public Map<String, PriceStats> summarizeByAirline(FlightTable t) {
+        int A = t.airlines.size();
+        AirlineAccumulator acc = new AirlineAccumulator(A);
+        int[] identity = new int[A];
+        for (int a = 0; a < A; a++) identity[a] = a;
+
+        List<AirlineAccumulator> parts = Chunks.map(t.size, parallelism, (lo, hi) -> {
+            AirlineAccumulator local = new AirlineAccumulator(A);
+            for (int i = lo; i < hi; i++) local.add(t.airlineId[i], t.price[i]);
+            return local;
         });
+        for (AirlineAccumulator part : parts) acc.merge(part, identity);
+
+        // liste yolu ile aynı sıra: büyük/küçük harf eşitliğinde de HashMap gruplama sırası
+        Map<String, Integer> ids = new HashMap<>();
+        for (int a = 0; a < A; a++) if (acc.count(a) > 0) ids.put(t.airlines.get(a), a);
+        List<String> keys = new ArrayList<>(ids.keySet());
+        keys.sort(AIRLINE_ORDER);
+
+        int[] prices = new int[t.size];
+        int[] offsets = acc.sortPricesById(t.airlineId, t.price, t.size, prices, parallelism);
+        Map<String, PriceStats> out = new LinkedHashMap<>();
+        for (String airline : keys) {
+            int a = ids.get(airline);
+            out.put(airline, acc.stats(a, airline, prices, offsets[a]));
+        }
+        return out;
+    }
+
+    /** Bir parçanın yerel sözlüğü ve sayaçları; rowIds[lo..hi) yerel id'lerle doldurulur. */
+    private static final class InternedChunk {
+        final int lo;
+        final int hi;
+        final List<String> names = new ArrayList<>();
+        final AirlineAccumulator acc = new AirlineAccumulator(8);
+
+        InternedChunk(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+    }
+
+    private static InternedChunk intern(List<FlightCsvRow> rows, int lo, int hi, int[] rowIds, int[] prices) {
+        InternedChunk part = new InternedChunk(lo, hi);
+        Map<String, Integer> ids = new HashMap<>();
+        int i = lo;
+        for (FlightCsvRow r : rows.subList(lo, hi)) {
+            String a = safe(r.airline);
+            Integer id = ids.get(a);
+            if (id == null) {
+                id = part.names.size();
+                part.names.add(a);
+                ids.put(a, id);
+            }
+            part.acc.add(id, r.price);
+            rowIds[i] = id;
+            prices[i] = r.price;
+            i++;
+        }
+        return part;
+    }
+
+    /**
+     * Havayolu id'si ile indekslenen primitive sayaçlar: count, min, max, sum, sum-of-squares.
+     * Yüzdelikler için fiyatlar bir kez id'ye göre gruplanıp (counting sort) segment segment sıralanır.
+     */
+    static final class AirlineAccumulator {
+        private int[] count;
+        private int[] min;
+        private int[] max;
+        private long[] sum;
+        private double[] sumSq;
+
+        AirlineAccumulator(int expectedAirlines) {
+            int cap = Math.max(1, expectedAirlines);
+            count = new int[cap];
+            min = new int[cap];
+            max = new int[cap];
+            sum = new long[cap];
+            sumSq = new double[cap];
+            Arrays.fill(min, Integer.MAX_VALUE);
+            Arrays.fill(max, Integer.MIN_VALUE);
+        }
+
+        void add(int id, int price) {
+            if (id >= count.length) grow(id + 1);
+            count[id]++;
+            sum[id] += price;
+            sumSq[id] += (double) price * price;
+            if (price < min[id]) min[id] = price;
+            if (price > max[id]) max[id] = price;
+        }
+
+        int count(int id) { return id < count.length ? count[id] : 0; }
+
+        /** Başka bir parçanın sayaçlarını ekler; {@code remap[k]} = o parçadaki k id'sinin buradaki karşılığı. */
+        void merge(AirlineAccumulator other, int[] remap) {
+            for (int k = 0; k < remap.length && k < other.count.length; k++) {
+                if (other.count[k] == 0) continue;
+                int id = remap[k];
+                if (id >= count.length) grow(id + 1);
+                count[id] += other.count[k];
+                sum[id] += other.sum[k];
+                sumSq[id] += other.sumSq[k];
+                if (other.min[k] < min[id]) min[id] = other.min[k];
+                if (other.max[k] > max[id]) max[id] = other.max[k];
+            }
+        }
+
+        /** Yerinde: fiyatları id'ye göre gruplar ve her grubu sıralar; id başına başlangıç offset'ini döndürür. */
+        int[] sortPricesById(int[] ids, int[] prices, int n, int parallelism) {
+            int[] grouped = new int[n];
+            int[] offsets = sortPricesById(ids, prices, n, grouped, parallelism);
+            System.arraycopy(grouped, 0, prices, 0, n);
+            return offsets;
+        }
+
+        /** Fiyatları id'ye göre gruplanmış ve sıralanmış halde {@code out}'a yazar; segmentler paralel sıralanabilir. */
+        int[] sortPricesById(int[] ids, int[] prices, int n, int[] out, int parallelism) {
+            int A = count.length;
+            int[] offsets = new int[A];
+            for (int a = 1; a < A; a++) offsets[a] = offsets[a - 1] + count[a - 1];
+            int[] cursor = offsets.clone();
+            for (int i = 0; i < n; i++) out[cursor[ids[i]]++] = prices[i];
+
+            if (Chunks.chunkCount(n, parallelism) == 1) {
+                for (int a = 0; a < A; a++) {
+                    if (count[a] > 1) Arrays.sort(out, offsets[a], offsets[a] + count[a]);
+                }
+            } else {
+                List<ForkJoinTask<?>> sorts = new ArrayList<>();
+                ForkJoinPool pool = Chunks.pool();
+                for (int a = 0; a < A; a++) {
+                    if (count[a] <= 1) continue;
+                    int from = offsets[a], to = offsets[a] + count[a];
+                    sorts.add(pool.submit(() -> Arrays.sort(out, from, to)));
+                }
+                for (ForkJoinTask<?> t : sorts) t.join();
+            }
+            return offsets;
+        }
+
+        /** Sıralı fiyat segmenti verilirse yüzdelikleri de doldurur; {@code sorted == null} ise p50/p90 NaN. */
+        PriceStats stats(int id, String airline, int[] sorted, int from) {
+            int c = count[id];
+            double avg = (double) sum[id] / c;
+            double variance = Math.max(0.0, (sumSq[id] - (double) sum[id] * sum[id] / c) / c);
+            double p50 = sorted == null ? Double.NaN : percentile(sorted, from, c, 0.50);
+            double p90 = sorted == null ? Double.NaN : percentile(sorted, from, c, 0.90);
+            return new PriceStats(airline, c, min[id], max[id], avg, Math.sqrt(variance), p50, p90);
+        }
 
-        // Havayolu adlarına göre deterministik sırala
-        return out.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey(String.CASE_INSENSITIVE_ORDER))
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey, Map.Entry::getValue,
-                        (a,b) -> a, LinkedHashMap::new));
+        private void grow(int minCapacity) {
+            int cap = Math.max(minCapacity, count.length * 2);
+            int old = count.length;
+            count = Arrays.copyOf(count, cap);
+            min = Arrays.copyOf(min, cap);
+            max = Arrays.copyOf(max, cap);
+            sum = Arrays.copyOf(sum, cap);
+            sumSq = Arrays.copyOf(sumSq, cap);
+            Arrays.fill(min, old, cap, Integer.MAX_VALUE);
+            Arrays.fill(max, old, cap, Integer.MIN_VALUE);
+        }
+    }
+
+    /** Sıralı segmentte doğrusal interpolasyonlu yüzdelik (numpy/pandas varsayılanı ile aynı). */
+    static double percentile(int[] sorted, int from, int count, double q) {
+        if (count <= 0) return Double.NaN;
+        double pos = q * (count - 1);
+        int lo = (int) Math.floor(pos);
+        int hi = Math.min(count - 1, lo + 1);
+        double frac = pos - lo;
+        return sorted[from + lo] + (sorted[from + hi] - (double) sorted[from + lo]) * frac;
+    }
+
+    /** Akıştan (ör. {@link CsvLoader#stream}) havayolu özetlerini tek geçişte, satırları tutmadan hesaplar. */
+    public Map<String, PriceStats> summarizeByAirline(Stream<FlightCsvRow> rows, int slotCount) {
+        StreamingSummary summary = new StreamingSummary(slotCount);
+        rows.forEach(summary);
+        return summary.stats();
+    }
+
+    /**
+     * Satırları tek tek tüketen, bellekte yalnızca havayolu başına sayaç tutan özetleyici.
+     * {@link CsvLoader#forEach} ile birlikte kullanıldığında bellek kullanımı dosya boyutundan bağımsızdır.
+     * Sonuçlar liste tabanlı {@link #summarizeByAirline(List)}, {@link #airlinesSorted} ve
+     * {@link #avgPriceMatrixByAirlineAndSlot} ile birebir aynıdır.
+     */
+    public static class StreamingSummary implements Consumer<FlightCsvRow> {
+        private final int slotCount;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final AirlineAccumulator acc = new AirlineAccumulator(8);
+        private final List<double[]> slotSum = new ArrayList<>();
+        private final List<int[]> slotCnt = new ArrayList<>();
+
+        public StreamingSummary(int slotCount) {
+            this.slotCount = Math.max(1, slotCount);
+        }
+
+        @Override
+        public void accept(FlightCsvRow r) {
+            String a = safe(r.airline);
+            Integer id = ids.get(a);
+            if (id == null) {
+                id = ids.size();
+                ids.put(a, id);
+                slotSum.add(new double[slotCount]);
+                slotCnt.add(new int[slotCount]);
+            }
+            acc.add(id, r.price);
+            int s = Math.max(0, Math.min(slotCount - 1, r.timeSlot));
+            slotSum.get(id)[s] += r.price;
+            slotCnt.get(id)[s] += 1;
+        }
+
+        public boolean isEmpty() { return ids.isEmpty(); }
+
+        /**
+         * {@link PriceAggregator#summarizeByAirline(List)} ile aynı sırada özetler.
+         * Satırlar tutulmadığı için p50/p90 hesaplanmaz (NaN); stddev toplamlardan hesaplanır.
+         */
+        public Map<String, PriceStats> stats() {
+            List<String> keys = new ArrayList<>(ids.keySet());
+            keys.sort(AIRLINE_ORDER);
+            Map<String, PriceStats> out = new LinkedHashMap<>();
+            for (String a : keys) out.put(a, acc.stats(ids.get(a), a, null, 0));
+            return out;
+        }
+
+        /** {@link PriceAggregator#airlinesSorted} karşılığı (boş havayolu hariç). */
+        public List<String> airlinesSorted() {
+            List<String> out = new ArrayList<>();
+            for (String a : ids.keySet()) if (!a.isBlank()) out.add(a);
+            out.sort(AIRLINE_ORDER);
+            return out;
+        }
+
+        /** {@link PriceAggregator#avgPriceMatrixByAirlineAndSlot} karşılığı. */
+        public double[][] avgPriceMatrix(List<String> airlinesInOrder) {
+            int A = airlinesInOrder.size();
+            double[][] avg = new double[A][slotCount];
+            for (int i = 0; i < A; i++) {
+                Integer id = ids.get(airlinesInOrder.get(i));
+                for (int s = 0; s < slotCount; s++) {
+                    avg[i][s] = (id == null || slotCnt.get(id)[s] == 0)
+                            ? Double.NaN : slotSum.get(id)[s] / slotCnt.get(id)[s];
+                }
+            }
+            return avg;
+        }
     }
 
     /** Heatmap için: Y=airline listesi, X=slot(0..slotCount-1). Hücre=ortalama fiyat (yoksa NaN). */
@@ -50,28 +365,97 @@ public class PriceAggregator {
                                                      List<String> airlinesInOrder,
                                                      int slotCount) {
         int A = airlinesInOrder.size();
-        double[][] sum = new double[A][slotCount];
-        int[][] cnt = new int[A][slotCount];
+        Map<String, Integer> aIndex = new HashMap<>();
+        for (int i = 0; i < A; i++) aIndex.put(airlinesInOrder.get(i), i);
 
+        int par = rows instanceof RandomAccess ? parallelism : 1;
+        List<SlotMatrix> parts = Chunks.map(rows.size(), par, (lo, hi) -> {
+            SlotMatrix m = new SlotMatrix(A, slotCount);
+            for (FlightCsvRow r : rows.subList(lo, hi)) {
+                Integer ai = aIndex.get(safe(r.airline));
+                if (ai != null) m.add(ai, r.timeSlot, r.price);
+            }
+            return m;
+        });
+        return SlotMatrix.mergeAll(parts).averages();
+    }
+
+    /** Tablo üzerinde heatmap matrisi; havayolu eşlemesi satır başına değil sözlük başına yapılır. */
+    public double[][] avgPriceMatrixByAirlineAndSlot(FlightTable t,
+                                                     List<String> airlinesInOrder,
+                                                     int slotCount) {
+        int A = airlinesInOrder.size();
         Map<String, Integer> aIndex = new HashMap<>();
         for (int i = 0; i < A; i++) aIndex.put(airlinesInOrder.get(i), i);
+        int[] rowOf = new int[t.airlines.size()];
+        for (int id = 0; id < rowOf.length; id++) {
+            Integer ai = aIndex.get(t.airlines.get(id));
+            rowOf[id] = ai == null ? -1 : ai;
+        }
 
-        for (FlightCsvRow r : rows) {
-            String a = safe(r.airline);
-            Integer ai = aIndex.get(a);
-            if (ai == null) continue;
-            int s = Math.max(0, Math.min(slotCount - 1, r.timeSlot));
-            sum[ai][s] += r.price;
+        List<SlotMatrix> parts = Chunks.map(t.size, parallelism, (lo, hi) -> {
+            SlotMatrix m = new SlotMatrix(A, slotCount);
+            for (int i = lo; i < hi; i++) {
+                int ai = rowOf[t.airlineId[i]];
+                if (ai >= 0) m.add(ai, t.timeSlot[i], t.price[i]);
+            }
+            return m;
+        });
+        return SlotMatrix.mergeAll(parts).averages();
+    }
+
+    /**
+     * Havayolu x slot toplam/adet matrisi (parça başına bir tane).
+     * Toplamlar tam sayı fiyatlardan oluştuğu için birleştirme sırası sonucu değiştirmez.
+     */
+    private static final class SlotMatrix {
+        final double[][] sum;
+        final int[][] cnt;
+        final int slotCount;
+
+        SlotMatrix(int airlines, int slotCount) {
+            this.slotCount = slotCount;
+            this.sum = new double[airlines][slotCount];
+            this.cnt = new int[airlines][slotCount];
+        }
+
+        void add(int ai, int timeSlot, int price) {
+            int s = Math.max(0, Math.min(slotCount - 1, timeSlot));
+            sum[ai][s] += price;
             cnt[ai][s] += 1;
         }
 
-        double[][] avg = new double[A][slotCount];
-        for (int i = 0; i < A; i++) {
-            for (int s = 0; s < slotCount; s++) {
-                avg[i][s] = cnt[i][s] == 0 ? Double.NaN : sum[i][s] / cnt[i][s];
+        static SlotMatrix mergeAll(List<SlotMatrix> parts) {
+            SlotMatrix first = parts.get(0);
+            for (int p = 1; p < parts.size(); p++) {
+                SlotMatrix other = parts.get(p);
+                for (int i = 0; i < first.sum.length; i++) {
+                    for (int s = 0; s < first.slotCount; s++) {
+                        first.sum[i][s] += other.sum[i][s];
+                        first.cnt[i][s] += other.cnt[i][s];
+                    }
+                }
+            }
+            return first;
+        }
+
+        double[][] averages() {
+            double[][] avg = new double[sum.length][slotCount];
+            for (int i = 0; i < sum.length; i++) {
+                for (int s = 0; s < slotCount; s++) {
+                    avg[i][s] = cnt[i][s] == 0 ? Double.NaN : sum[i][s] / cnt[i][s];
+                }
             }
+            return avg;
         }
-        return avg;
+    }
+
+    /** Tablodaki havayollarını deterministik sırayla döndür. */
+    public List<String> airlinesSorted(FlightTable t) {
+        return t.airlines.stream()
+                .filter(s -> !s.isBlank())
+                .sorted(AIRLINE_ORDER)
+                .collect(Collectors.toList());
     }
 
     /** Mevcut veriden havayollarını deterministik sırayla döndür. */
@@ -80,7 +464,7 @@ public class PriceAggregator {
                 .map(r -> safe(r.airline))
                 .filter(s -> !s.isBlank())
                 .distinct()
-                .sorted(String.CASE_INSENSITIVE_ORDER)
+                .sorted(AIRLINE_ORDER)
                 .collect(Collectors.toList());
     }
 
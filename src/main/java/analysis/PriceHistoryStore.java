@@ -0,0 +1,417 @@
+package analysis;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Rota + gidiş tarihi başına, yalnızca sona eklenen (append-only) fiyat geçmişi. Her çıkarma bir "capture"dır:
+ * o andaki her uçuşun (havayolu + uçuş anahtarı) fiyatı capture zamanıyla birlikte eklenir.
+ *
+ * Dosyalar {@code <dir>/<rota>_<gidiş>.ph} ve {@code .series}:
+ * <ul>
+ *   <li>{@code .ph}: 16 baytlık başlık (magic, sürüm, kayıt sayısı) + 16 baytlık sabit kayıtlar
+ *       (capture zamanı ms, seri id, fiyat). Bellek eşlemli (mmap) okunur/yazılır; kayıt sayısı
+ *       kayıtlar yazıldıktan sonra güncellenir, yarım kalan bir ekleme okunmaz.</li>
+ *   <li>{@code .series}: seri id → "havayolu\tuçuş anahtarı" (satır numarası = id), kayıtlardan önce yazılır.
+ *       Alanlardaki {@code \}, sekme ve satır sonları kaçışlanır ({@code \\}, {@code \t}, {@code \n}, {@code \r});
+ *       çözülüp yeniden kaçışlanınca aynı satırı vermeyen ya da tekrarlanan satır id'leri kaydıracağı için reddedilir.</li>
+ * </ul>
+ * Kayıtlar capture zamanına göre sıralı tutulur (geriye giden zaman reddedilir); zaman aralığı sorguları
+ * ikili arama ile başlar. Açılışta seri başına kayıt konumları indekslenir, {@link #trend} son N kaydı
+ * doğrudan okur. Aynı dosyayı aynı anda yalnızca bir süreç/nesne açabilir (dosya kilidi).
+ */
+public final class PriceHistoryStore implements Closeable {
+
+    private static final int MAGIC = 0x50484953;   // "PHIS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 16;
+    private static final int COUNT_OFFSET = 8;
+    private static final long INITIAL_CAPACITY = 64 * 1024;
+
+    private final Path dataFile;
+    private final Path seriesFile;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private MappedByteBuffer map;
+
+    private long count;
+    private final List<String> seriesAirline = new ArrayList<>();
+    private final List<String> seriesFlight = new ArrayList<>();
+    private final Map<String, Integer> seriesIds = new HashMap<>();
+    private final List<int[]> positions = new ArrayList<>();   // seri id → kayıt index'leri (artan)
+    private final List<Integer> positionCount = new ArrayList<>();
+
+    /** Tek gözlem: bir uçuşun bir capture'daki fiyatı. */
+    public record Observation(Instant capturedAt, String airline, String flightKey, int price) {}
+
+    private PriceHistoryStore(Path dataFile, Path seriesFile) throws IOException {
+        this.dataFile = dataFile;
+        this.seriesFile = seriesFile;
+        this.channel = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock l;
+        try {
+            l = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            l = null;
+        }
+        if (l == null) {
+            channel.close();
+            throw new IOException("Price history is already open elsewhere: " + dataFile);
+        }
+        this.lock = l;
+        try {
+            load();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Rota + gidiş tarihi için deposu açar (yoksa oluşturur).
+     *
+     * @param route "Istanbul_Lefkosa" gibi; dosya adında Türkçe harfler ASCII'ye, diğer karakterler '_' olur
+     */
+    public static PriceHistoryStore open(Path dir, String route, LocalDate departDate) throws IOException {
+        Files.createDirectories(dir);
+        String base = Normalizer.normalize(route.replace('ı', 'i'), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("[^A-Za-z0-9_-]+", "_") + "_" + departDate;
+        return new PriceHistoryStore(dir.resolve(base + ".ph"), dir.resolve(base + ".series"));
+    }
+
+    /** Uçuşu havayolundan bağımsız tanımlayan anahtar: kalkış-varış, aktarma, süre ("06:45-07:55|0|70"). */
+    public static String flightKey(String departureTime, String arrivalTime, int stopsCount, int durationMin) {
+        return departureTime + "-" + arrivalTime + "|" + stopsCount + "|" + durationMin;
+    }
+
+    /** Toplam kayıt sayısı. */
+    public synchronized long size() { return count; }
+
+    /** Bilinen (havayolu, uçuş anahtarı) serisi sayısı. */
+    public synchronized int seriesCount() { return seriesAirline.size(); }
+
+    /**
+     * Bir capture'ı ekler: tablodaki her uçuş için bir kayıt. Aynı uçuş capture içinde birden fazla
+     * görünürse en düşük fiyatı yazılır. Fiyatı 0 ya da negatif olan satırlar (ayrıştırılamamış / render
+     * edilmemiş kart) atlanır; aksi halde serinin ve günün en ucuzu olarak görünürlerdi.
+     *
+     * @return eklenen kayıt sayısı
+     * @throws IllegalArgumentException {@code capturedAt} son kayıttan önceyse
+     */
+    public synchronized int appendCapture(Instant capturedAt, FlightTable t) throws IOException {
+        long millis = capturedAt.toEpochMilli();
+        if (count > 0 && millis < timeAt(count - 1)) {
+            throw new IllegalArgumentException("Capture time " + capturedAt + " is before the last capture "
+                    + Instant.ofEpochMilli(timeAt(count - 1)));
+        }
+
+        // seri id → bu capture'daki en düşük fiyat, ilk görülme sırasıyla
+        Map<Integer, Integer> cheapest = new LinkedHashMap<>();
+        List<String> newSeries = new ArrayList<>();
+        for (int i = 0; i < t.size; i++) {
+            if (t.price[i] <= 0) continue;
+            String airline = t.airline(i);
+            String key = flightKey(t.departureTime(i), t.arrivalTime(i), t.stopsCount[i], t.durationMin[i]);
+            String line = seriesLine(airline, key);
+            Integer id = seriesIds.get(line);
+            if (id == null) {
+                id = addSeries(airline, key, line);
+                newSeries.add(line);
+            }
+            cheapest.merge(id, t.price[i], Math::min);
+        }
+        if (cheapest.isEmpty()) return 0;
+
+        // önce seri sözlüğü: kayıtlar var olmayan bir id'yi asla göstermesin
+        if (!newSeries.isEmpty()) {
+            try (BufferedWriter w = Files.newBufferedWriter(seriesFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String s : newSeries) {
+                    w.write(s);
+                    w.write('\n');
+                }
+            }
+        }
+
+        ensureCapacity(count + cheapest.size());
+        long index = count;
+        for (Map.Entry<Integer, Integer> e : cheapest.entrySet()) {
+            int pos = position(index);
+            map.putLong(pos, millis);
+            map.putInt(pos + 8, e.getKey());
+            map.putInt(pos + 12, e.getValue());
+            index(e.getKey(), (int) index);
+            index++;
+        }
+        count = index;
+        map.putLong(COUNT_OFFSET, count);   // commit
+        return cheapest.size();
+    }
+
+    /** Bir uçuşun son {@code lastN} gözlemi, eskiden yeniye. */
+    public synchronized List<Observation> trend(String airline, String flightKey, int lastN) {
+        Integer id = seriesIds.get(seriesLine(airline, flightKey));
+        if (id == null || lastN <= 0) return List.of();
+        int[] pos = positions.get(id);
+        int n = positionCount.get(id);
+        List<Observation> out = new ArrayList<>(Math.min(n, lastN));
+        for (int k = Math.max(0, n - lastN); k < n; k++) out.add(observation(pos[k]));
+        return out;
+    }
+
+    /** {@code [from, to)} aralığındaki tüm gözlemler, zaman sırasıyla. */
+    public synchronized List<Observation> range(Instant from, Instant to) {
+        List<Observation> out = new ArrayList<>();
+        long end = to.toEpochMilli();
+        for (long i = firstAtOrAfter(from.toEpochMilli()); i < count && timeAt(i) < end; i++) out.add(observation(i));
+        return out;
+    }
+
+    /**
+     * {@code [from, to)} aralığında, capture gününe (verilen saat dilimine göre) göre gözlenen en ucuz uçuş.
+     * Eşit fiyatta günün ilk gözlemi kalır.
+     */
+    public synchronized SortedMap<LocalDate, Observation> cheapestPerDay(Instant from, Instant to, ZoneId zone) {
+        SortedMap<LocalDate, Observation> out = new TreeMap<>();
+        long end = to.toEpochMilli();
+        LocalDate day = null;
+        int bestPrice = 0;
+        long bestIndex = -1;
+        for (long i = firstAtOrAfter(from.toEpochMilli()); i < count && timeAt(i) < end; i++) {
+            LocalDate d = Instant.ofEpochMilli(timeAt(i)).atZone(zone).toLocalDate();
+            int price = map.getInt(position(i) + 12);
+            if (!d.equals(day)) {
+                if (bestIndex >= 0) out.put(day, observation(bestIndex));
+                day = d;
+                bestIndex = i;
+                bestPrice = price;
+            } else if (price < bestPrice) {
+                bestIndex = i;
+                bestPrice = price;
+            }
+        }
+        if (bestIndex >= 0) out.put(day, observation(bestIndex));
+        return out;
+    }
+
+    /** Tüm geçmiş için {@link #cheapestPerDay(Instant, Instant, ZoneId)}. */
+    public SortedMap<LocalDate, Observation> cheapestPerDay(ZoneId zone) {
+        return cheapestPerDay(Instant.EPOCH, Instant.ofEpochMilli(Long.MAX_VALUE), zone);
+    }
+
+    /** Yazılanları diske zorlar, dosyayı kayıtların sonuna kırpar ve kilidi bırakır. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) return;
+        try {
+            if (map != null) map.force();
+            map = null;
+            // eşlem için büyütülen boş kuyruk dosyada kalmasın (eşlem GC ile bırakılana kadar kırpma başarısız olabilir)
+            try {
+                channel.truncate(HEADER_BYTES + count * RECORD_BYTES);
+            } catch (IOException ignored) {
+                // bir sonraki açılışta sayaç başlıktan okunur; fazlalık zararsız
+            }
+        } finally {
+            try {
+                if (lock.isValid()) lock.release();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // ---------- iç ----------
+
+    private void load() throws IOException {
+        if (Files.isRegularFile(seriesFile)) loadSeries();
+
+        long size = channel.size();
+        if (size == 0) {
+            remap(INITIAL_CAPACITY);
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.putLong(COUNT_OFFSET, 0);
+            return;
+        }
+        if (size < HEADER_BYTES) throw new IOException("Truncated price history: " + dataFile);
+        remap(size);
+        if (map.getInt(0) != MAGIC) throw new IOException("Not a price history file: " + dataFile);
+        int version = map.getInt(4);
+        if (version != VERSION) throw new IOException("Unsupported price history version " + version + ": " + dataFile);
+
+        long stored = map.getLong(COUNT_OFFSET);
+        if (stored < 0 || HEADER_BYTES + stored * RECORD_BYTES > size) {
+            throw new IOException("Price history record count " + stored + " exceeds file size: " + dataFile);
+        }
+        for (long i = 0; i < stored; i++) {
+            int id = map.getInt(position(i) + 8);
+            if (id < 0 || id >= seriesAirline.size()) {
+                throw new IOException("Record " + i + " references unknown series " + id + ": " + dataFile);
+            }
+            index(id, (int) i);
+        }
+        count = stored;
+    }
+
+    /**
+     * Satır numarası id olduğundan her satır tam olarak bir seri olmalı: bozuk ya da tekrarlanan satır hata.
+     * Sonu '\n' ile bitmeyen son satır (ekleme sırasında kesilmiş) hiçbir kayıtça gösterilemez; dosyadan kırpılır.
+     */
+    private void loadSeries() throws IOException {
+        byte[] bytes = Files.readAllBytes(seriesFile);
+        int complete = bytes.length;
+        while (complete > 0 && bytes[complete - 1] != '\n') complete--;
+        if (complete < bytes.length) {
+            try (FileChannel ch = FileChannel.open(seriesFile, StandardOpenOption.WRITE)) {
+                ch.truncate(complete);
+            }
+        }
+        String text = new String(bytes, 0, complete, StandardCharsets.UTF_8);
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            String line = text.substring(start, end);
+            int tab = line.indexOf('\t');
+            String airline = tab < 0 ? null : unescape(line.substring(0, tab));
+            String key = tab < 0 ? null : unescape(line.substring(tab + 1));
+            int id = seriesAirline.size();
+            if (airline == null || key == null || !seriesLine(airline, key).equals(line)) {
+                throw new IOException("Malformed series " + id + " in " + seriesFile + ": " + line);
+            }
+            if (seriesIds.containsKey(line)) {
+                throw new IOException("Duplicate series " + id + " (first is " + seriesIds.get(line) + ") in " + seriesFile);
+            }
+            addSeries(airline, key, line);
+            start = end + 1;
+        }
+    }
+
+    /** Kaçışlanmış "havayolu\tuçuş anahtarı"; hem dosya satırı hem sözlük anahtarı. */
+    static String seriesLine(String airline, String flightKey) {
+        return escape(airline) + '\t' + escape(flightKey);
+    }
+
+    static String escape(String s) {
+        StringBuilder b = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            char e = switch (c) {
+                case '\\' -> '\\';
+                case '\t' -> 't';
+                case '\n' -> 'n';
+                case '\r' -> 'r';
+                default -> 0;
+            };
+            if (e == 0) {
+                if (b != null) b.append(c);
+                continue;
+            }
+            if (b == null) b = new StringBuilder(s.length() + 8).append(s, 0, i);
+            b.append('\\').append(e);
+        }
+        return b == null ? s : b.toString();
+    }
+
+    /** {@link #escape}'in tersi; kaçışlanmamış sekme / satır sonu ya da tanınmayan kaçış varsa null. */
+    static String unescape(String s) {
+        if (s.indexOf('\\') < 0) return s.indexOf('\t') < 0 && s.indexOf('\r') < 0 ? s : null;
+        StringBuilder b = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\t' || c == '\r') return null;
+            if (c != '\\') {
+                b.append(c);
+                continue;
+            }
+            if (++i == s.length()) return null;
+            switch (s.charAt(i)) {
+                case '\\' -> b.append('\\');
+                case 't' -> b.append('\t');
+                case 'n' -> b.append('\n');
+                case 'r' -> b.append('\r');
+                default -> { return null; }
+            }
+        }
+        return b.toString();
+    }
+
+    private int addSeries(String airline, String flightKey, String line) {
+        int id = seriesAirline.size();
+        seriesAirline.add(airline);
+        seriesFlight.add(flightKey);
+        seriesIds.put(line, id);
+        positions.add(new int[4]);
+        positionCount.add(0);
+        return id;
+    }
+
+    private void index(int id, int record) {
+        int[] pos = positions.get(id);
+        int n = positionCount.get(id);
+        if (n == pos.length) {
+            pos = Arrays.copyOf(pos, n * 2);
+            positions.set(id, pos);
+        }
+        pos[n] = record;
+        positionCount.set(id, n + 1);
+    }
+
+    private void ensureCapacity(long records) throws IOException {
+        long needed = HEADER_BYTES + records * RECORD_BYTES;
+        if (needed > Integer.MAX_VALUE) throw new IOException("Price history is full (2 GB): " + dataFile);
+        if (needed <= map.capacity()) return;
+        long cap = map.capacity();
+        while (cap < needed) cap = Math.min(Integer.MAX_VALUE, cap * 2);
+        map.force();
+        remap(cap);
+    }
+
+    private void remap(long bytes) throws IOException {
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        map.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /** capture zamanı {@code millis} ya da sonrası olan ilk kayıt (ikili arama). */
+    private long firstAtOrAfter(long millis) {
+        long lo = 0, hi = count;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (timeAt(mid) < millis) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private long timeAt(long i) {
+        return map.getLong(position(i));
+    }
+
+    private Observation observation(long i) {
+        int pos = position(i);
+        int id = map.getInt(pos + 8);
+        return new Observation(Instant.ofEpochMilli(map.getLong(pos)), seriesAirline.get(id), seriesFlight.get(id),
+                map.getInt(pos + 12));
+    }
+
+    private static int position(long i) {
+        return (int) (HEADER_BYTES + i * RECORD_BYTES);
+    }
+}
@@ -0,0 +1,367 @@
+package analysis;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Bir rota + tarih için kalıcı, birleştirilebilir analiz durumu. Her yeni çıkarma (batch) bu duruma katlanır;
+ * özetler, heatmap ve en-uygunlar geçmiş CSV'ler yeniden okunmadan buradan üretilir.
+ *
+ * Havayolu başına: count, sum, sum-of-squares, min, max ve slot başına toplam/adet; ayrıca skoru en iyi
+ * {@code topK} uçuş. Aynı batch id ikinci kez katlanmaz (aynı CSV'nin tekrar analizi sayıları şişirmez).
+ * Satırlar tutulmadığı için p50/p90 hesaplanmaz (NaN), {@link PriceAggregator.StreamingSummary} ile aynı.
+ *
+ * En-uygunlar listesinde aynı uçuş (kalkış, varış, havayolu, aktarma, süre) bir kez yer alır: tekrar
+ * gözlenirse yalnızca daha iyi skoru tutulur; aksi halde günde birkaç kez çalışan rota aynı uçuşla dolardı.
+ * Thread-safe değildir.
+ */
+public final class RouteAggregateState {
+
+    private static final int MAGIC = 0x52414753;   // "RAGS"
+    private static final int VERSION = 1;
+
+    private final int slotCount;
+    private final int topK;
+    private String weights;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<AirlineState> airlines = new ArrayList<>();
+    private final List<Candidate> top = new ArrayList<>();     // artan (skor, seq)
+    private final Set<String> batches = new LinkedHashSet<>();
+    private long rows;                                          // katlanan toplam satır (seq kaynağı)
+
+    public RouteAggregateState(int slotCount, int topK) {
+        this.slotCount = Math.max(1, slotCount);
+        this.topK = Math.max(0, topK);
+    }
+
+    public int slotCount() { return slotCount; }
+
+    public int topK() { return topK; }
+
+    /** Katlanan toplam satır sayısı. */
+    public long rowCount() { return rows; }
+
+    public boolean isEmpty() { return rows == 0; }
+
+    /** Katlanmış batch id'leri, katlanma sırasıyla. */
+    public Set<String> batchIds() { return Collections.unmodifiableSet(batches); }
+
+    public boolean contains(String batchId) { return batches.contains(batchId); }
+
+    /**
+     * Bir batch'i duruma katlar; süre batch boyutuyla orantılıdır.
+     *
+     * @return batch daha önce katlandıysa false (durum değişmez)
+     * @throws IllegalArgumentException tablonun slot sayısı durumunkinden farklıysa ya da skor modeli
+     *                                  satır-yerel değilse (Pareto skoru batch'e görelidir; batch'ler arası
+     *                                  karşılaştırılamaz, saklanan adaylar yeniden skorlanamaz)
+     */
+    public boolean fold(String batchId, FlightTable batch, ScoringService scoring) {
+        if (batch.slotCount != slotCount) {
+            throw new IllegalArgumentException("Batch slotCount " + batch.slotCount + " != state slotCount " + slotCount);
+        }
+        requireRowLocal(scoring.model());
+        if (batches.contains(batchId)) return false;
+        rescoreIfChanged(scoring);
+
+        int[] local = new int[batch.airlines.size()];
+        for (int a = 0; a < local.length; a++) local[a] = idOf(batch.airlines.get(a));
+        double[] scores = scoring.scores(batch);
+        for (int i = 0; i < batch.size; i++) {
+            airlines.get(local[batch.airlineId[i]]).add(batch.price[i], batch.timeSlot[i], slotCount);
+            offer(batch, i, scores[i], rows + i);
+        }
+        rows += batch.size;
+        batches.add(batchId);
+        return true;
+    }
+
+    /**
+     * Başka bir durumu (ör. paralel worker'ın ayrı dosyası) bu duruma ekler.
+     *
+     * @throws IllegalArgumentException slot sayısı ya da skor ağırlıkları farklıysa, veya iki durum ortak
+     *                                  bir batch içeriyorsa (sayaçlardan bir batch geri çıkarılamaz)
+     */
+    public void merge(RouteAggregateState other) {
+        if (other.slotCount != slotCount) {
+            throw new IllegalArgumentException("Cannot merge states with slotCount " + other.slotCount + " and " + slotCount);
+        }
+        if (weights != null && other.weights != null && !weights.equals(other.weights)) {
+            throw new IllegalArgumentException("Cannot merge states scored with " + other.weights + " and " + weights);
+        }
+        for (String b : other.batches) {
+            if (batches.contains(b)) throw new IllegalArgumentException("Batch folded into both states: " + b);
+        }
+        for (String name : other.ids.keySet()) {
+            airlines.get(idOf(name)).merge(other.airlines.get(other.ids.get(name)));
+        }
+        // diğer durumun satırları bunun arkasına eklenmiş sayılır
+        for (Candidate c : other.top) offer(new Candidate(c.row, c.score, rows + c.seq));
+        if (weights == null) weights = other.weights;
+        rows += other.rows;
+        batches.addAll(other.batches);
+    }
+
+    // ---------- çıktılar ----------
+
+    /** {@link PriceAggregator#summarizeByAirline} sırasıyla ({@link PriceAggregator#AIRLINE_ORDER}). */
+    public Map<String, PriceAggregator.PriceStats> stats() {
+        List<String> keys = new ArrayList<>(ids.keySet());
+        keys.sort(PriceAggregator.AIRLINE_ORDER);
+        Map<String, PriceAggregator.PriceStats> out = new LinkedHashMap<>();
+        for (String a : keys) {
+            AirlineState s = airlines.get(ids.get(a));
+            double avg = (double) s.sum / s.count;
+            double variance = Math.max(0.0, (s.sumSq - (double) s.sum * s.sum / s.count) / s.count);
+            out.put(a, new PriceAggregator.PriceStats(a, s.count, s.min, s.max, avg,
+                    Math.sqrt(variance), Double.NaN, Double.NaN));
+        }
+        return out;
+    }
+
+    /** {@link PriceAggregator#airlinesSorted} karşılığı (boş havayolu hariç). */
+    public List<String> airlinesSorted() {
+        List<String> out = new ArrayList<>();
+        for (String a : ids.keySet()) if (!a.isBlank()) out.add(a);
+        out.sort(PriceAggregator.AIRLINE_ORDER);
+        return out;
+    }
+
+    /** Heatmap: satır = verilen havayolu sırası, sütun = slot; hücre ortalama fiyat (yoksa NaN). */
+    public double[][] avgPriceMatrix(List<String> airlinesInOrder) {
+        double[][] avg = new double[airlinesInOrder.size()][slotCount];
+        for (int i = 0; i < avg.length; i++) {
+            Integer id = ids.get(airlinesInOrder.get(i));
+            for (int s = 0; s < slotCount; s++) {
+                avg[i][s] = (id == null || airlines.get(id).slotCnt[s] == 0)
+                        ? Double.NaN : (double) airlines.get(id).slotSum[s] / airlines.get(id).slotCnt[s];
+            }
+        }
+        return avg;
+    }
+
+    /** Artan skor sırasında en fazla {@code n} (≤ topK) uçuş. */
+    public List<ScoringService.ScoredFlight> top(int n) {
+        List<ScoringService.ScoredFlight> out = new ArrayList<>(Math.min(n, top.size()));
+        for (int k = 0; k < top.size() && k < n; k++) out.add(new ScoringService.ScoredFlight(top.get(k).row, top.get(k).score));
+        return out;
+    }
+
+    // ---------- kalıcılık ----------
+
+    /** Dosya yoksa boş durum döner. */
+    public static RouteAggregateState loadOrEmpty(Path file, int slotCount, int topK) throws IOException {
+        if (!Files.isRegularFile(file)) return new RouteAggregateState(slotCount, topK);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return read(in, file);
+        }
+    }
+
+    /** Önce geçici dosyaya yazar, sonra yerine taşır; yarım yazılmış durum dosyası kalmaz. */
+    public void save(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".part");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                write(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(slotCount);
+        out.writeInt(topK);
+        out.writeUTF(weights == null ? "" : weights);
+        out.writeLong(rows);
+
+        out.writeInt(batches.size());
+        for (String b : batches) out.writeUTF(b);
+
+        // id sırasıyla: yüklerken aynı id'ler verilir
+        String[] names = new String[airlines.size()];
+        ids.forEach((name, id) -> names[id] = name);
+        out.writeInt(names.length);
+        for (int id = 0; id < names.length; id++) {
+            AirlineState s = airlines.get(id);
+            out.writeUTF(names[id]);
+            out.writeInt(s.count);
+            out.writeLong(s.sum);
+            out.writeDouble(s.sumSq);
+            out.writeInt(s.min);
+            out.writeInt(s.max);
+            for (int k = 0; k < slotCount; k++) {
+                out.writeLong(s.slotSum[k]);
+                out.writeInt(s.slotCnt[k]);
+            }
+        }
+
+        out.writeInt(top.size());
+        for (Candidate c : top) {
+            FlightCsvRow r = c.row;
+            out.writeUTF(r.departureTime == null ? "" : r.departureTime);
+            out.writeUTF(r.arrivalTime == null ? "" : r.arrivalTime);
+            out.writeUTF(r.airline == null ? "" : r.airline);
+            out.writeInt(r.price);
+            out.writeUTF(r.currency);
+            out.writeInt(r.durationMin);
+            out.writeInt(r.stopsCount);
+            out.writeInt(r.timeSlot);
+            out.writeDouble(c.score);
+            out.writeLong(c.seq);
+        }
+    }
+
+    private static RouteAggregateState read(DataInputStream in, Path file) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a route state file: " + file);
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("Unsupported route state version " + version + ": " + file);
+
+        RouteAggregateState st = new RouteAggregateState(in.readInt(), in.readInt());
+        String w = in.readUTF();
+        st.weights = w.isEmpty() ? null : w;
+        st.rows = in.readLong();
+
+        int batchCount = in.readInt();
+        for (int i = 0; i < batchCount; i++) st.batches.add(in.readUTF());
+
+        int airlineCount = in.readInt();
+        for (int id = 0; id < airlineCount; id++) {
+            AirlineState s = st.airlines.get(st.idOf(in.readUTF()));
+            s.count = in.readInt();
+            s.sum = in.readLong();
+            s.sumSq = in.readDouble();
+            s.min = in.readInt();
+            s.max = in.readInt();
+            for (int k = 0; k < st.slotCount; k++) {
+                s.slotSum[k] = in.readLong();
+                s.slotCnt[k] = in.readInt();
+            }
+        }
+
+        int topCount = in.readInt();
+        for (int i = 0; i < topCount; i++) {
+            FlightCsvRow r = new FlightCsvRow(in.readUTF(), in.readUTF(), in.readUTF(), in.readInt(),
+                    in.readUTF(), in.readInt(), in.readInt(), in.readInt());
+            st.top.add(new Candidate(r, in.readDouble(), in.readLong()));
+        }
+        return st;
+    }
+
+    // ---------- iç ----------
+
+    private int idOf(String airline) {
+        Integer id = ids.get(airline);
+        if (id == null) {
+            id = airlines.size();
+            ids.put(airline, id);
+            airlines.add(new AirlineState(slotCount));
+        }
+        return id;
+    }
+
+    /** Artımlı durum yalnızca satır-yerel modellerle tutulabilir (bkz. {@link #fold}). */
+    static void requireRowLocal(ScoreModel model) {
+        if (!model.rowLocal()) {
+            throw new IllegalArgumentException("Incremental analysis needs a row-local score model, got "
+                    + model.describe() + "; use analysis.scoreModel=linear|timeOfDay or turn analysis.incremental off");
+        }
+    }
+
+    /** Ağırlıklar değiştiyse saklanan adaylar yeni formülle yeniden sıralanır (listeden düşmüş olanlar geri gelmez). */
+    private void rescoreIfChanged(ScoringService scoring) {
+        String current = scoring.weights();
+        if (current.equals(weights)) return;
+        if (weights != null) {
+            List<Candidate> old = new ArrayList<>(top);
+            top.clear();
+            for (Candidate c : old) offer(new Candidate(c.row, scoring.score(c.row), c.seq));
+        }
+        weights = current;
+    }
+
+    /** Satır nesnesi yalnızca aday listeye girecekse kurulur. */
+    private void offer(FlightTable t, int i, double score, long seq) {
+        if (topK == 0) return;
+        if (top.size() == topK && !before(score, seq, top.get(topK - 1))) return;
+        offer(new Candidate(t.row(i), score, seq));
+    }
+
+    private void offer(Candidate c) {
+        if (topK == 0) return;
+        for (int k = 0; k < top.size(); k++) {
+            if (!sameFlight(top.get(k).row, c.row)) continue;
+            if (!before(c.score, c.seq, top.get(k))) return;
+            top.remove(k);
+            break;
+        }
+        int pos = top.size();
+        while (pos > 0 && before(c.score, c.seq, top.get(pos - 1))) pos--;
+        if (pos >= topK) return;
+        top.add(pos, c);
+        if (top.size() > topK) top.remove(topK);
+    }
+
+    /** (skor, seq) sırasında önce mi; eşit skorda önce gelen kazanır ({@link ScoringService#rank} gibi). */
+    private static boolean before(double score, long seq, Candidate c) {
+        return score < c.score || (score == c.score && seq < c.seq);
+    }
+
+    private static boolean sameFlight(FlightCsvRow a, FlightCsvRow b) {
+        return Objects.equals(a.departureTime, b.departureTime)
+                && Objects.equals(a.arrivalTime, b.arrivalTime)
+                && Objects.equals(a.airline, b.airline)
+                && a.stopsCount == b.stopsCount
+                && a.durationMin == b.durationMin;
+    }
+
+    private record Candidate(FlightCsvRow row, double score, long seq) {}
+
+    /** Tek havayolunun sayaçları. */
+    private static final class AirlineState {
+        int count;
+        long sum;
+        double sumSq;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        final long[] slotSum;
+        final int[] slotCnt;
+
+        AirlineState(int slotCount) {
+            slotSum = new long[slotCount];
+            slotCnt = new int[slotCount];
+        }
+
+        void add(int price, int timeSlot, int slotCount) {
+            count++;
+            sum += price;
+            sumSq += (double) price * price;
+            if (price < min) min = price;
+            if (price > max) max = price;
+            int s = Math.max(0, Math.min(slotCount - 1, timeSlot));
+            slotSum[s] += price;
+            slotCnt[s]++;
+        }
+
+        void merge(AirlineState o) {
+            count += o.count;
+            sum += o.sum;
+            sumSq += o.sumSq;
+            min = Math.min(min, o.min);
+            max = Math.max(max, o.max);
+            for (int s = 0; s < slotSum.length; s++) {
+                slotSum[s] += o.slotSum[s];
+                slotCnt[s] += o.slotCnt[s];
+            }
+        }
+    }
+}
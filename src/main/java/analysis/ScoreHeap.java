@@ -0,0 +1,105 @@
+package analysis;
+
+/**
+ * Sabit kapasiteli, primitive (skor, satır index'i) max-heap'i: en iyi k adayı O(n log k) ile seçer.
+ * Tepede en kötü aday durur (en büyük skor; eşitlikte en büyük index). Eşit skorlarda küçük index
+ * kazandığı için sonuç, tüm listeyi stabil sıralayıp ilk k'yı almakla birebir aynıdır.
+ */
+final class ScoreHeap {
+
+    private final int capacity;
+    private final double[] scores;
+    private final int[] rows;
+    private int size;
+
+    ScoreHeap(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.scores = new double[this.capacity];
+        this.rows = new int[this.capacity];
+    }
+
+    int size() { return size; }
+
+    /**
+     * Adayı ekler.
+     *
+     * @return heap'ten çıkan satır index'i: yer açmak için atılan en kötü aday, aday girmediyse {@code row}'un
+     *         kendisi; heap henüz dolmadıysa -1
+     */
+    int offer(double score, int row) {
+        if (capacity == 0) return row;
+        if (size < capacity) {
+            scores[size] = score;
+            rows[size] = row;
+            siftUp(size++);
+            return -1;
+        }
+        if (score < scores[0] || (score == scores[0] && row < rows[0])) {
+            int evicted = rows[0];
+            scores[0] = score;
+            rows[0] = row;
+            siftDown(0);
+            return evicted;
+        }
+        return row;
+    }
+
+    /** Başka bir parçanın heap'ini bu heap'e katar. */
+    void addAll(ScoreHeap other) {
+        for (int i = 0; i < other.size; i++) offer(other.scores[i], other.rows[i]);
+    }
+
+    /**
+     * Heap'i boşaltarak artan (skor, index) sırasında satır index'lerini döndürür.
+     * {@code scoresOut} verilirse aynı sırada skorlar da yazılır.
+     */
+    int[] drainAscending(double[] scoresOut) {
+        int n = size;
+        int[] out = new int[n];
+        for (int k = n - 1; k >= 0; k--) {
+            out[k] = rows[0];
+            if (scoresOut != null) scoresOut[k] = scores[0];
+            size--;
+            if (size > 0) {
+                scores[0] = scores[size];
+                rows[0] = rows[size];
+                siftDown(0);
+            }
+        }
+        return out;
+    }
+
+    private boolean worse(int i, int j) {
+        return scores[i] > scores[j] || (scores[i] == scores[j] && rows[i] > rows[j]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(i, parent)) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) return;
+            int r = l + 1;
+            int worst = (r < size && worse(r, l)) ? r : l;
+            if (!worse(worst, i)) return;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int i, int j) {
+        double s = scores[i];
+        scores[i] = scores[j];
+        scores[j] = s;
+        int r = rows[i];
+        rows[i] = rows[j];
+        rows[j] = r;
+    }
+}
@@ -0,0 +1,284 @@
+package analysis;
+
+import utils.ConfigSnapshot;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Uçuş maliyet skoru (küçük = daha iyi). Her model iki yoldan çağrılır:
+ * tek satır ({@link #score}) ve sütun bazlı toplu çekirdek ({@link #scoreAll}): tablonun primitive dizileri
+ * sıkı döngülerde okunur, satır nesnesi oluşturulmaz. Parametre taramalarında ({@link ScoringService#sweep})
+ * aynı tablo yüzlerce modelle yeniden skorlanır; Linear ve TimeOfDay toplu yolu bu yüzden tahsis yapmaz.
+ *
+ * <ul>
+ *   <li>{@link Linear}: {@code fiyat + α·süre + β·aktarma − γ·(direkt?)} (TC4'ün varsayılanı)</li>
+ *   <li>{@link TimeOfDay}: Linear + tercih edilen kalkış aralığı dışındaki her saat için ceza</li>
+ *   <li>{@link Pareto}: fiyat, süre ve aktarmada uçuşu domine eden uçuş sayısı (0 = Pareto cephesi);
+ *       tabloya göreli olduğu için yalnızca toplu yolda hesaplanır</li>
+ * </ul>
+ */
+public interface ScoreModel {
+
+    /**
+     * Tek satırın skoru.
+     *
+     * @param departureMin gün içi kalkış dakikası; bilinmiyorsa negatif
+     * @throws UnsupportedOperationException satır-yerel olmayan modellerde ({@link #rowLocal()} false)
+     */
+    double score(int price, int durationMin, int stopsCount, int departureMin);
+
+    /** {@code out[i]} = i. satırın skoru, {@code i ∈ [0, t.size)}; {@code out.length >= t.size}. */
+    void scoreAll(FlightTable t, double[] out);
+
+    /** Skor yalnızca satırın kendisine mi bağlı (false ise tablonun tamamına göre hesaplanır). */
+    default boolean rowLocal() { return true; }
+
+    /** Skor kalkış dakikasına bakıyor mu; false ise satır yolunda kalkış saati ayrıştırılmaz, -1 geçilir. */
+    default boolean usesDeparture() { return false; }
+
+    /** Kısa, kararlı açıklama ("linear(alpha=3,stop=250,direct=50)"); kalıcı durumlarda formülü ayırt eder. */
+    String describe();
+
+    static ScoreModel linear(int alphaPerMinute, int stopPenalty, int directBonus) {
+        return new Linear(alphaPerMinute, stopPenalty, directBonus);
+    }
+
+    /**
+     * Linear skor + kalkış saati cezası.
+     *
+     * @param preferredFrom tercih edilen kalkış aralığının başı (gün içi dakika)
+     * @param preferredTo   sonu (hariç); {@code from > to} ise gece yarısını geçen aralık (ör. 22:00–06:00)
+     * @param tlPerHour     aralığa en yakın kenardan her saat uzaklık için ceza (TL)
+     */
+    static ScoreModel timeOfDay(int alphaPerMinute, int stopPenalty, int directBonus,
+                                int preferredFrom, int preferredTo, int tlPerHour) {
+        return new TimeOfDay(new Linear(alphaPerMinute, stopPenalty, directBonus), preferredFrom, preferredTo, tlPerHour);
+    }
+
+    static ScoreModel pareto() {
+        return Pareto.INSTANCE;
+    }
+
+    /**
+     * {@code analysis.scoreModel} (linear | timeOfDay | pareto) ve {@code analysis.weight.*} anahtarlarından.
+     * timeOfDay için {@code analysis.weight.preferredDeparture=06:00-22:00} ve {@code analysis.weight.tlPerHourOutside}.
+     *
+     * @throws IllegalArgumentException bilinmeyen model, hatalı aralık ya da {@code analysis.incremental=true} ile pareto
+     *                                  (batch'e göreli skor artımlı durumda birleştirilemez)
+     */
+    static ScoreModel fromConfig(ConfigSnapshot cfg) {
+        Linear linear = new Linear(
+                cfg.getIntOrDefault("analysis.weight.alphaTlPerMin", 3),
+                cfg.getIntOrDefault("analysis.weight.stopPenalty", 250),
+                cfg.getIntOrDefault("analysis.weight.directBonus", 50));
+        String name = cfg.getOrDefault("analysis.scoreModel", "linear").trim().toLowerCase(Locale.ROOT);
+        return switch (name) {
+            case "linear" -> linear;
+            case "timeofday" -> {
+                String window = cfg.getOrDefault("analysis.weight.preferredDeparture", "06:00-22:00");
+                int dash = window.indexOf('-');
+                int from = dash < 0 ? -1 : FlightCsvRow.minuteOfDay(window.substring(0, dash).trim());
+                int to = dash < 0 ? -1 : FlightCsvRow.minuteOfDay(window.substring(dash + 1).trim());
+                if (from < 0 || to < 0) {
+                    throw new IllegalArgumentException("analysis.weight.preferredDeparture must be HH:mm-HH:mm: " + window);
+                }
+                yield new TimeOfDay(linear, from, to, cfg.getIntOrDefault("analysis.weight.tlPerHourOutside", 40));
+            }
+            case "pareto" -> {
+                if (cfg.getBoolean("analysis.incremental", false)) {
+                    throw new IllegalArgumentException("analysis.scoreModel=pareto cannot be combined with analysis.incremental=true: "
+                            + "Pareto scores are relative to one batch");
+                }
+                yield Pareto.INSTANCE;
+            }
+            default -> throw new IllegalArgumentException("Unknown analysis.scoreModel: " + name);
+        };
+    }
+
+    // ---------- modeller ----------
+
+    /** {@code fiyat + α·süre + β·aktarma − γ·(direkt?)}; tam sayı aritmetiği (eski ScoringService ile birebir). */
+    final class Linear implements ScoreModel {
+        final int alphaPerMinute;
+        final int stopPenalty;
+        final int directBonus;
+
+        Linear(int alphaPerMinute, int stopPenalty, int directBonus) {
+            this.alphaPerMinute = alphaPerMinute;
+            this.stopPenalty = stopPenalty;
+            this.directBonus = directBonus;
+        }
+
+        @Override
+        public double score(int price, int durationMin, int stopsCount, int departureMin) {
+            return price + alphaPerMinute * durationMin + stopPenalty * stopsCount - (stopsCount == 0 ? directBonus : 0);
+        }
+
+        @Override
+        public void scoreAll(FlightTable t, double[] out) {
+            LinearKernel.score(t.price, t.durationMin, t.stopsCount, t.size,
+                    alphaPerMinute, stopPenalty, directBonus, out);
+        }
+
+        @Override
+        public String describe() {
+            return "linear(alpha=" + alphaPerMinute + ",stop=" + stopPenalty + ",direct=" + directBonus + ")";
+        }
+    }
+
+    /** Linear + kalkış saati tercih aralığının dışında kalan her saat için {@code tlPerHour} ceza (dakika hassasiyetinde). */
+    final class TimeOfDay implements ScoreModel {
+        private static final int DAY = 24 * 60;
+
+        private final Linear base;
+        private final int from;
+        private final int to;
+        private final int tlPerHour;
+        private final double[] penalty = new double[DAY];   // dakika → ceza; toplu yolda tablo okuması
+
+        TimeOfDay(Linear base, int preferredFrom, int preferredTo, int tlPerHour) {
+            this.base = base;
+            this.from = Math.floorMod(preferredFrom, DAY);
+            this.to = Math.floorMod(preferredTo, DAY);
+            this.tlPerHour = tlPerHour;
+            for (int m = 0; m < DAY; m++) penalty[m] = tlPerHour * minutesOutside(m) / 60.0;
+        }
+
+        /** Aralığın içindeyse 0; değilse en yakın kenara (gece yarısı üzerinden de) dakika uzaklığı. */
+        private int minutesOutside(int m) {
+            boolean inside = from <= to ? (m >= from && m < to) : (m >= from || m < to);
+            if (inside || from == to) return 0;
+            int toFrom = Math.floorMod(from - m, DAY);        // ileride başlangıca
+            int fromEnd = Math.floorMod(m - (to - 1), DAY);   // geride son dakikaya
+            return Math.min(toFrom, fromEnd);
+        }
+
+        @Override
+        public boolean usesDeparture() { return true; }
+
+        @Override
+        public double score(int price, int durationMin, int stopsCount, int departureMin) {
+            double s = base.score(price, durationMin, stopsCount, departureMin);
+            return departureMin < 0 || departureMin >= DAY ? s : s + penalty[departureMin];
+        }
+
+        @Override
+        public void scoreAll(FlightTable t, double[] out) {
+            base.scoreAll(t, out);
+            short[] dep = t.departureMin;
+            for (int i = 0; i < t.size; i++) {
+                int m = dep[i];
+                if (m >= 0 && m < DAY) out[i] += penalty[m];
+            }
+        }
+
+        @Override
+        public String describe() {
+            return "timeOfDay(" + base.describe() + ",from=" + from + ",to=" + to + ",tlPerHour=" + tlPerHour + ")";
+        }
+    }
+
+    /**
+     * Fiyat, süre ve aktarma sayısında (hepsi küçük = iyi) uçuşu domine eden uçuşların sayısı.
+     * b, a'yı domine eder: üç ölçütte de ≤ ve en az birinde &lt;. Birebir aynı uçuşlar birbirini domine etmez.
+     *
+     * Fiyata göre sıralı geçişte, aktarma seviyesi başına süre üzerinde Fenwick ağacı tutulur:
+     * O(n log n + n · S · log D) (S = farklı aktarma sayısı, D = farklı süre sayısı).
+     */
+    final class Pareto implements ScoreModel {
+        static final Pareto INSTANCE = new Pareto();
+
+        private Pareto() {}
+
+        @Override
+        public boolean rowLocal() { return false; }
+
+        @Override
+        public double score(int price, int durationMin, int stopsCount, int departureMin) {
+            throw new UnsupportedOperationException("Pareto scores are relative to the whole table; use scoreAll");
+        }
+
+        @Override
+        public void scoreAll(FlightTable t, double[] out) {
+            int n = t.size;
+            if (n == 0) return;
+            int[] durations = distinct(t.durationMin, n);
+            int[] stops = distinct(t.stopsCount, n);
+            if (stops.length > 0xFF) throw new IllegalArgumentException("Too many distinct stop counts for Pareto scoring: " + stops.length);
+
+            // (fiyat, süre sırası, aktarma sırası) tek long anahtarda; eşit anahtar = birebir aynı uçuş
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = key(t.price[i], Arrays.binarySearch(durations, t.durationMin[i]),
+                        Arrays.binarySearch(stops, t.stopsCount[i]));
+            }
+            long[] sorted = keys.clone();
+            Arrays.sort(sorted);
+
+            // farklı anahtarlar ve tekrar sayıları
+            int m = 0;
+            long[] uniq = new long[n];
+            int[] mult = new int[n];
+            for (int k = 0; k < n; k++) {
+                if (m > 0 && uniq[m - 1] == sorted[k]) mult[m - 1]++;
+                else { uniq[m] = sorted[k]; mult[m++] = 1; }
+            }
+
+            long[][] fenwick = new long[stops.length][durations.length + 1];
+            long[] dominators = new long[m];
+            int g = 0;
+            while (g < m) {
+                // aynı fiyatlı grup önce eklenir (fiyatta eşit olanlar da ≤ sayılır), sonra sorgulanır
+                int end = g;
+                long price = priceOf(uniq[g]);
+                while (end < m && priceOf(uniq[end]) == price) end++;
+                for (int k = g; k < end; k++) add(fenwick[stopsOf(uniq[k])], durationOf(uniq[k]) + 1, mult[k]);
+                for (int k = g; k < end; k++) {
+                    long c = 0;
+                    int d = durationOf(uniq[k]) + 1;
+                    for (int s = 0; s <= stopsOf(uniq[k]); s++) c += sum(fenwick[s], d);
+                    dominators[k] = c - mult[k];   // kendisi ve birebir kopyaları hariç
+                }
+                g = end;
+            }
+
+            for (int i = 0; i < n; i++) out[i] = dominators[Arrays.binarySearch(uniq, 0, m, keys[i])];
+        }
+
+        @Override
+        public String describe() {
+            return "pareto(price,duration,stops)";
+        }
+
+        // 23 bit süre sırası + 8 bit aktarma sırası; fiyat üst bitlerde (negatif fiyat 0'a sabitlenir)
+        private static long key(int price, int durationRank, int stopsRank) {
+            return ((long) Math.max(0, price) << 31) | ((long) durationRank << 8) | stopsRank;
+        }
+
+        private static long priceOf(long key) { return key >>> 31; }
+
+        private static int durationOf(long key) { return (int) ((key >>> 8) & 0x7FFFFF); }
+
+        private static int stopsOf(long key) { return (int) (key & 0xFF); }
+
+        private static int[] distinct(int[] values, int n) {
+            int[] v = Arrays.copyOf(values, n);
+            Arrays.sort(v);
+            int m = 0;
+            for (int k = 0; k < n; k++) if (m == 0 || v[m - 1] != v[k]) v[m++] = v[k];
+            if (m > 0x7FFFFF) throw new IllegalArgumentException("Too many distinct values for Pareto scoring: " + m);
+            return Arrays.copyOf(v, m);
+        }
+
+        private static void add(long[] tree, int i, int delta) {
+            for (; i < tree.length; i += i & -i) tree[i] += delta;
+        }
+
+        private static long sum(long[] tree, int i) {
+            long s = 0;
+            for (; i > 0; i -= i & -i) s += tree[i];
+            return s;
+        }
+    }
+}
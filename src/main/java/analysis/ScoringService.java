@@ -1,42 +1,220 @@
 package analysis;
 
-import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-/** Fiyat + süre + aktarma sayısına göre maliyet skoru hesaplar ve ilk N uçuşu döndürür. */
+/**
+ * Uçuşları bir {@link ScoreModel} ile skorlar (küçük = daha iyi) ve ilk N uçuşu döndürür.
+ * Tablo yolları modelin toplu çekirdeğini ({@link ScoreModel#scoreAll}) bir kez çalıştırıp skor dizisi üzerinden seçer.
+ */
 public class ScoringService {
 
-    // skor = price + α*durationMin + β*stopsCount - γ*(isDirect?1:0)
-    private final int alphaPerMinute;   // dakika başına ceza (TL)
-    private final int stopPenalty;      // her aktarma için ceza (TL)
-    private final int directBonus;      // direkt uçuş bonusu (TL)
+    private final ScoreModel model;
+    private final int parallelism;      // topN için parça başına heap; 1 = sıralı
+    private final boolean usesDeparture;
 
+    /** skor = price + α*durationMin + β*stopsCount - γ*(isDirect?1:0) ({@link ScoreModel#linear}). */
     public ScoringService(int alphaPerMinute, int stopPenalty, int directBonus) {
-        this.alphaPerMinute = alphaPerMinute;
-        this.stopPenalty = stopPenalty;
-        this.directBonus = directBonus;
+        this(alphaPerMinute, stopPenalty, directBonus, 1);
     }
 
+    public ScoringService(int alphaPerMinute, int stopPenalty, int directBonus, int parallelism) {
+        this(ScoreModel.linear(alphaPerMinute, stopPenalty, directBonus), parallelism);
+    }
+
+    public ScoringService(ScoreModel model, int parallelism) {
+        this.model = Objects.requireNonNull(model, "model");
+        this.parallelism = Math.max(1, parallelism);
+        this.usesDeparture = model.usesDeparture();
+    }
+
+    public ScoreModel model() {
+        return model;
+    }
+
+    /** Modelin kısa metni; kalıcı durumlarda hangi formülle skorlandığını ayırt etmek için. */
+    public String weights() {
+        return model.describe();
+    }
+
+    /** @throws UnsupportedOperationException model satır-yerel değilse (ör. Pareto) */
     public double score(FlightCsvRow r) {
-        return r.price
-                + alphaPerMinute * r.durationMin
-                + stopPenalty * r.stopsCount
-                - (r.isDirect ? directBonus : 0);
+        int departureMin = usesDeparture ? FlightCsvRow.minuteOfDay(r.departureTime) : -1;
+        return model.score(r.price, r.durationMin, r.stopsCount, departureMin);
+    }
+
+    /** Tablonun i. satırı için aynı formül (satır nesnesi kurmadan). */
+    public double score(FlightTable t, int i) {
+        return model.score(t.price[i], t.durationMin[i], t.stopsCount[i], t.departureMin[i]);
+    }
+
+    /** Tüm tablonun skorları (toplu çekirdek); {@code [i]} = i. satır. */
+    public double[] scores(FlightTable t) {
+        return scores(t, null);
+    }
+
+    /** {@link #scores(FlightTable)}; {@code buf} yeterince büyükse ona yazar (tekrarlı skorlamada tahsis yok). */
+    public double[] scores(FlightTable t, double[] buf) {
+        double[] out = buf != null && buf.length >= t.size ? buf : new double[t.size];
+        model.scoreAll(t, out);
+        return out;
     }
 
     /** Skorları ekleyip artan sırada sıralar. */
     public List<ScoredFlight> rank(List<FlightCsvRow> rows) {
+        if (!model.rowLocal()) return rank(FlightTable.of(rows, 1), rows::get);
         return rows.stream()
                 .map(r -> new ScoredFlight(r, score(r)))
                 .sorted(Comparator.comparingDouble(sf -> sf.score))
                 .collect(Collectors.toList());
     }
 
-    /** İlk N sonucu döndür. */
+    /** Tablo için {@link #rank(List)} karşılığı. */
+    public List<ScoredFlight> rank(FlightTable t) {
+        return rank(t, t::row);
+    }
+
+    private List<ScoredFlight> rank(FlightTable t, IntFunction<FlightCsvRow> rowOf) {
+        double[] scores = scores(t);
+        List<ScoredFlight> out = new ArrayList<>(t.size);
+        for (int i = 0; i < t.size; i++) out.add(new ScoredFlight(rowOf.apply(i), scores[i]));
+        out.sort(Comparator.comparingDouble(sf -> sf.score));
+        return out;
+    }
+
+    /**
+     * Tablo için ilk N sonuç: skorlar toplu hesaplanır, N boyutlu primitive heap ile seçilir (O(n log N)),
+     * yalnızca kazanan N satır için nesne oluşturulur. parallelism > 1 ise parça heap'leri birleştirilir.
+     */
+    public List<ScoredFlight> topN(FlightTable t, int n) {
+        return select(scores(t), t.size, n, t::row);
+    }
+
+    /** İlk N sonucu döndür ({@link #rank} + ilk N ile aynı sonuç, tam sıralama yapmadan). */
     public List<ScoredFlight> topN(List<FlightCsvRow> rows, int n) {
-        List<ScoredFlight> all = rank(rows);
-        return all.subList(0, Math.min(n, all.size()));
+        if (!model.rowLocal()) return select(scores(FlightTable.of(rows, 1)), rows.size(), n, rows::get);
+        int par = rows instanceof RandomAccess ? parallelism : 1;
+        List<ScoreHeap> parts = Chunks.map(rows.size(), par, (lo, hi) -> {
+            ScoreHeap heap = new ScoreHeap(n);
+            int i = lo;
+            for (FlightCsvRow r : rows.subList(lo, hi)) heap.offer(score(r), i++);
+            return heap;
+        });
+        return drain(merge(parts, n), rows::get);
+    }
+
+    /**
+     * Aynı tabloyu her model için yeniden skorlar ve ilk N'leri döndürür ({@code [k]} = {@code models[k]}).
+     * {@code analysis.weight.*} taramaları için: tablo bir kez yüklenir, skor dizisi modeller arasında paylaşılır.
+     */
+    public List<List<ScoredFlight>> sweep(FlightTable t, List<? extends ScoreModel> models, int n) {
+        double[] buf = new double[t.size];
+        List<List<ScoredFlight>> out = new ArrayList<>(models.size());
+        for (ScoreModel m : models) {
+            m.scoreAll(t, buf);
+            out.add(select(buf, t.size, n, t::row));
+        }
+        return out;
+    }
+
+    private List<ScoredFlight> select(double[] scores, int size, int n, IntFunction<FlightCsvRow> rowOf) {
+        List<ScoreHeap> parts = Chunks.map(size, parallelism, (lo, hi) -> {
+            ScoreHeap heap = new ScoreHeap(n);
+            for (int i = lo; i < hi; i++) heap.offer(scores[i], i);
+            return heap;
+        });
+        return drain(merge(parts, n), rowOf);
+    }
+
+    private static List<ScoredFlight> drain(ScoreHeap heap, IntFunction<FlightCsvRow> rowOf) {
+        double[] scores = new double[heap.size()];
+        int[] winners = heap.drainAscending(scores);
+        List<ScoredFlight> out = new ArrayList<>(winners.length);
+        for (int k = 0; k < winners.length; k++) out.add(new ScoredFlight(rowOf.apply(winners[k]), scores[k]));
+        return out;
+    }
+
+    private static ScoreHeap merge(List<ScoreHeap> parts, int n) {
+        if (parts.size() == 1) return parts.get(0);
+        ScoreHeap merged = new ScoreHeap(n);
+        for (ScoreHeap part : parts) merged.addAll(part);
+        return merged;
+    }
+
+    /**
+     * Akıştan ilk N sonucu döndürür; yalnızca N adet aday bellekte tutulur.
+     * Eşit skorlarda {@link #rank} gibi geliş sırasını korur. Satır-yerel olmayan modelde akış listeye
+     * toplanıp {@link #topN(List, int)} ile seçilir.
+     */
+    public List<ScoredFlight> topN(Stream<FlightCsvRow> rows, int n) {
+        if (!model.rowLocal()) return topN(rows.toList(), n);
+        TopN top = newTopN(n);
+        rows.forEach(top);
+        return top.result();
+    }
+
+    /**
+     * Satır satır beslenebilen sınırlı top-N seçici (ör. {@link CsvLoader#forEach} ile).
+     *
+     * @throws IllegalStateException model satır-yerel değilse (skor tüm tabloya bağlı; akışta hesaplanamaz).
+     *                               Çağıranlar bu durumda tabloya okuyup {@link #topN(FlightTable, int)} kullanır
+     *                               (bkz. {@link AnalysisRunner#runStreaming})
+     */
+    public TopN newTopN(int n) {
+        if (!model.rowLocal()) throw new IllegalStateException("Streaming top-N needs a row-local score model: " + model.describe());
+        return new TopN(n);
+    }
+
+    /**
+     * {@link ScoreHeap} üzerinde N boyutlu seçici: heap'te satırın geliş sırası index olarak tutulur, satırın kendisi
+     * N'lik tamponda durur (reddedilen satır için nesne oluşmaz). Tie-break tablo yollarıyla aynıdır: eşit skorda
+     * önce gelen kazanır.
+     */
+    public class TopN implements Consumer<FlightCsvRow> {
+        private final ScoreHeap heap;
+        private final FlightCsvRow[] held;     // heap'teki satırlar; held[k] ↔ heldSeq[k]
+        private final int[] heldSeq;
+        private int count;
+        private int seq;
+
+        private TopN(int n) {
+            int cap = Math.max(0, n);
+            this.heap = new ScoreHeap(cap);
+            this.held = new FlightCsvRow[cap];
+            this.heldSeq = new int[cap];
+        }
+
+        /** @throws IllegalStateException {@code Integer.MAX_VALUE} satırdan uzun akışta (geliş sırası int) */
+        @Override
+        public void accept(FlightCsvRow r) {
+            if (seq == Integer.MAX_VALUE) throw new IllegalStateException("Streaming top-N supports at most " + Integer.MAX_VALUE + " rows");
+            int order = seq++;
+            int out = heap.offer(score(r), order);
+            if (out == order) return;
+            int slot = out < 0 ? count++ : slotOf(out);
+            held[slot] = r;
+            heldSeq[slot] = order;
+        }
+
+        /** Artan skor sırasında sonuç (eşitlikte geliş sırası); seçici bozulmaz, beslemeye devam edilebilir. */
+        public List<ScoredFlight> result() {
+            ScoreHeap copy = new ScoreHeap(held.length);
+            copy.addAll(heap);
+            double[] scores = new double[copy.size()];
+            int[] winners = copy.drainAscending(scores);
+            List<ScoredFlight> out = new ArrayList<>(winners.length);
+            for (int k = 0; k < winners.length; k++) out.add(new ScoredFlight(held[slotOf(winners[k])], scores[k]));
+            return out;
+        }
+
+        /** Yer değişimi yalnızca kabul edilen satırda olur; N küçük olduğu için doğrusal arama yeterli. */
+        private int slotOf(int order) {
+            for (int k = 0; k < count; k++) if (heldSeq[k] == order) return k;
+            throw new IllegalStateException("row #" + order + " is not held");
+        }
     }
 
     /** CSV yazımı için satır dizisi üretir (header ile uyumlu). */
@@ -7,6 +7,7 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import java.time.Duration;
 import locator.HomePageLocator;
+import utils.StepTimings;
 
 public abstract class BasePage {
     protected final WebDriver driver;
@@ -19,10 +20,13 @@ public abstract class BasePage {
     }
 
     protected WebElement waitVisible(By locator) {
+        long t0 = System.nanoTime();
         try {
             return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
         } catch (TimeoutException e) {
             throw new RuntimeException("Element did not become visible: " + locator, e);
+        } finally {
+            StepTimings.record("waitVisible", System.nanoTime() - t0);
         }
     }
 
@@ -36,35 +40,98 @@ public abstract class BasePage {
     }
 
     protected void click(By locator) {
+        long t0 = System.nanoTime();
         try {
             wait.until(ExpectedConditions.elementToBeClickable(locator)).click();
         } catch (Exception e) {
             throw new RuntimeException("Click failed: " + locator, e);
+        } finally {
+            StepTimings.record("click", System.nanoTime() - t0);
         }
     }
 
     protected void type(By locator, String text) {
-        WebElement el = waitVisible(locator);
-        el.clear();
-        el.sendKeys(text);
+        StepTimings.time("type", () -> {
+            WebElement el = waitVisible(locator);
+            el.clear();
+            el.sendKeys(text);
+        });
     }
 
     protected void pressEnter(By locator) {
-        waitVisible(locator);
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        driver.findElement(locator).sendKeys(Keys.ENTER);
+        StepTimings.time("pressEnter", () -> {
+            WebElement input = waitVisible(locator);
+            // öneri listesi (autocomplete) gelip yerleşsin; yalnızca input'un formu izlenir (sayfadaki carousel'ler hariç)
+            WebElement form = (WebElement) ((JavascriptExecutor) driver).executeScript(
+                    "return arguments[0].closest('form') || arguments[0].parentElement;", input);
+            waitForDomStable(form, null, 250, 3000);
+            driver.findElement(locator).sendKeys(Keys.ENTER);
+        });
+    }
+
+    /**
+     * Sayfa içine bir MutationObserver kurup tek bir async script ile bekler: {@code readyCss} (verildiyse) en az bir
+     * elemana uyduğunda ve {@code scope} altında eleman ekleme/çıkarma ve metin değişikliği {@code quietMs} boyunca
+     * durduğunda döner. Bekleme tarayıcı içinde olur; WebDriver'a tek istek gider.
+     * Attribute değişiklikleri ve ağ istekleri sayılmaz (carousel, zamanlayıcı ve analitik istekleri hiç durmaz);
+     * gerekiyorsa {@link #waitForDomStable(WebElement, String, long, long, boolean, boolean)} ile küçük bir scope'ta istenir.
+     *
+     * @param scope     izlenecek alt ağaç; null ise document.body
+     * @param readyCss  beklenen eleman (document içinde); null ise yalnızca sakinlik beklenir
+     * @param timeoutMs üst sınır (WebDriver'ın varsayılan 30 sn script timeout'u altında tutulur)
+     * @return koşul sağlandıysa true; zaman aşımı ya da script hatasında false (çağıran kendi beklemesiyle devam eder)
+     */
+    protected boolean waitForDomStable(WebElement scope, String readyCss, long quietMs, long timeoutMs) {
+        return waitForDomStable(scope, readyCss, quietMs, timeoutMs, false, false);
     }
 
-    protected void shortWait(double seconds) {
+    /**
+     * @param attributes true ise scope altındaki attribute değişiklikleri de sakinlik sayacını sıfırlar
+     * @param network    true ise sayfanın resource yüklemeleri (fetch, resim...) de sıfırlar
+     */
+    protected boolean waitForDomStable(WebElement scope, String readyCss, long quietMs, long timeoutMs,
+                                       boolean attributes, boolean network) {
+        long cappedTimeout = Math.min(timeoutMs, MAX_STABLE_WAIT_MS);
+        long t0 = System.nanoTime();
         try {
-            Thread.sleep((long) (seconds * 1000));
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("shortWait interrupted: {}", e.getMessage());
+            Object ok = ((JavascriptExecutor) driver).executeAsyncScript(DOM_STABLE_JS, scope, readyCss, quietMs, cappedTimeout,
+                    attributes, network);
+            if (!Boolean.TRUE.equals(ok)) log.debug("DOM did not settle within {} ms (ready={})", cappedTimeout, readyCss);
+            return Boolean.TRUE.equals(ok);
+        } catch (WebDriverException e) {
+            // navigasyon sırasında script düşebilir; bu bir hata değil
+            log.debug("DOM stability probe failed: {}", e.getMessage());
+            return false;
+        } finally {
+            StepTimings.record("waitForDomStable", System.nanoTime() - t0);
         }
     }
+
+    private static final long MAX_STABLE_WAIT_MS = 25_000;
+
+    private static final String DOM_STABLE_JS = """
+            var scope = arguments[0] || document.body, readyCss = arguments[1];
+            var quiet = arguments[2], timeout = arguments[3], attrs = arguments[4], network = arguments[5];
+            var done = arguments[arguments.length - 1];
+            var timer = null, finished = false, perf = null, deadline = null;
+            function ready() { return !readyCss || document.querySelector(readyCss) !== null; }
+            function finish(ok) {
+              if (finished) return;
+              finished = true;
+              obs.disconnect();
+              if (perf) perf.disconnect();
+              clearTimeout(timer);
+              clearTimeout(deadline);
+              done(ok);
+            }
+            function bump() { clearTimeout(timer); timer = setTimeout(check, quiet); }
+            function check() { if (ready()) finish(true); else bump(); }
+            var obs = new MutationObserver(bump);
+            obs.observe(scope, {childList: true, subtree: true, attributes: !!attrs, characterData: true});
+            if (network) {
+              try { perf = new PerformanceObserver(bump); perf.observe({type: 'resource'}); } catch (e) { perf = null; }
+            }
+            deadline = setTimeout(function () { finish(false); }, timeout);
+            bump();
+            """;
 }
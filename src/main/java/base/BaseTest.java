@@ -1,19 +1,20 @@
 package base;
 
 import io.qameta.allure.Allure;
-import io.qameta.allure.Attachment;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.ThreadContext;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.SessionNotCreatedException;
 import org.openqa.selenium.WebDriver;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
 import utils.ConfigReader;
+import utils.ConfigSnapshot;
 import utils.DriverFactory;
-
-import java.nio.charset.StandardCharsets;
+import utils.FailureArtifacts;
+import utils.RunContext;
+import utils.StepTimings;
 
 public abstract class BaseTest {
     protected WebDriver driver;
@@ -22,49 +23,59 @@ public abstract class BaseTest {
 
     @BeforeMethod(alwaysRun = true)
     public void setUp() {
-        String browser = ConfigReader.get("browser"); // sadece config.prop dan okuyorum artık. paralel testi deaktif ettim.
-        boolean headless = Boolean.parseBoolean(ConfigReader.get("headless"));
-        explicitWaitSec = Long.parseLong(ConfigReader.get("explicitWait"));
+        ConfigSnapshot cfg = ConfigReader.snapshot();   // önceden ayrıştırılmış değerler; paralellik suite.parallel ile açılır
+        String browser = cfg.browser();
+        boolean headless = cfg.headless();
+        explicitWaitSec = cfg.explicitWaitSec();
+
+        // log4j2 Routing bu anahtarlarla her worker'ı kendi log dosyasına yazar
+        ThreadContext.put("browser", browser);
+        ThreadContext.put("worker", RunContext.worker());
 
-        DriverFactory.initDriver(browser, headless);
+        DriverFactory.initDriver(browser, headless, driverProfile());
         driver = DriverFactory.getDriver();
         log.info("Driver started. Browser={}", browser);
     }
 
+    /** Tarayıcı profili; yalnızca veri okuyan testler EXTRACTION profiline geçebilir. */
+    protected DriverFactory.Profile driverProfile() {
+        return ConfigReader.snapshot().driverProfile();
+    }
+
     @AfterMethod(alwaysRun = true)
-    public void tearDown() {
-        DriverFactory.quitDriver();
-        ThreadContext.remove("browser");
+    public void tearDown(ITestResult result) {
+        // ekler, oturum havuza iade edilip about:blank'e dönmeden önce alınmalı
+        afterEach(result);
+        attachStepTimings();
+        if (!result.isSuccess() && isSessionLost(result.getThrowable())) {
+            DriverFactory.discardDriver();   // çökmüş tarayıcı havuza geri dönmesin
+        } else {
+            DriverFactory.quitDriver();
+        }
         log.info("Driver closed.");
+        ThreadContext.remove("browser");
+        ThreadContext.remove("worker");
     }
 
-    // Allure attachments
-    @Attachment(value = "Screenshot", type = "image/png")
-    private byte[] attachScreenshot() {
-        try {
-            return ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
-        } catch (Exception ignored) {
-            return new byte[0];
+    /** Bu testin adım / etkileşim süreleri (StepTimings); koşum geneli rapor suite sonunda yazılır. */
+    private void attachStepTimings() {
+        String csv = StepTimings.drainCurrentTest();
+        if (csv.indexOf('\n') < csv.length() - 1) {
+            Allure.addAttachment("Step Timings", "text/csv", csv, ".csv");
         }
     }
 
-    @Attachment(value = "Page Source", type = "text/html", fileExtension = ".html")
-    private byte[] attachPageSource() {
-        try {
-            return driver.getPageSource().getBytes(StandardCharsets.UTF_8);
-        } catch (Exception ignored) {
-            return "<empty/>".getBytes(StandardCharsets.UTF_8);
+    private static boolean isSessionLost(Throwable t) {
+        for (; t != null; t = t.getCause()) {
+            if (t instanceof NoSuchSessionException || t instanceof SessionNotCreatedException) return true;
         }
+        return false;
     }
 
-    // 🔹 Auto-attach on failure (Allure)
-    @AfterMethod(alwaysRun = true)
+    // 🔹 Auto-attach on failure / skip (Allure) — tearDown'dan çağrılır; TestListener zaten yakaladıysa tekrar almaz
     public void afterEach(ITestResult result) {
         if (!result.isSuccess()) {
-            Allure.step("Test failed — attaching screenshot & page source", () -> {
-                attachScreenshot();
-                attachPageSource();
-            });
+            FailureArtifacts.capture(result, driver);
         }
     }
 }
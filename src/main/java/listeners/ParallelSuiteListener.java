@@ -0,0 +1,32 @@
+package listeners;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+import utils.ConfigReader;
+import utils.ConfigSnapshot;
+
+import java.util.List;
+
+/**
+ * testng.xml'deki paralellik ayarlarını config'ten geçersiz kılar:
+ * {@code suite.parallel} (none | methods | classes | tests) ve {@code suite.threadCount}.
+ * Her worker thread kendi WebDriver'ını DriverFactory'deki ThreadLocal üzerinden alır.
+ */
+public class ParallelSuiteListener implements IAlterSuiteListener {
+    private static final Logger log = LogManager.getLogger(ParallelSuiteListener.class);
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        ConfigSnapshot cfg = ConfigReader.snapshot();
+        XmlSuite.ParallelMode parallel = cfg.suiteParallel();
+        int threads = cfg.suiteThreadCount();
+
+        for (XmlSuite suite : suites) {
+            suite.setParallel(parallel);
+            if (parallel != XmlSuite.ParallelMode.NONE) suite.setThreadCount(threads);
+            log.info("Suite '{}': parallel={}, threadCount={}", suite.getName(), parallel, suite.getThreadCount());
+        }
+    }
+}
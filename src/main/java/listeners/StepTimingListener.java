@@ -0,0 +1,50 @@
+package listeners;
+
+import io.qameta.allure.listener.StepLifecycleListener;
+import io.qameta.allure.model.StepResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import utils.ConfigReader;
+import utils.StepTimings;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Allure adımlarının sürelerini StepTimings'e yazar (ServiceLoader ile yüklenir:
+ * META-INF/services/io.qameta.allure.listener.StepLifecycleListener) ve suite bitince
+ * koşum raporunu {@code timings.dir} altına JSON + CSV olarak yazar (testng.xml'de suite listener).
+ *
+ * Parametreli adım adları ("From: Istanbul") ':' öncesine indirgenir ("From"), böylece
+ * aynı adımın farklı değerleri tek histogramda toplanır.
+ */
+public class StepTimingListener implements StepLifecycleListener, ISuiteListener {
+    private static final Logger log = LogManager.getLogger(StepTimingListener.class);
+
+    @Override
+    public void afterStepStop(StepResult result) {
+        if (result.getStart() == null || result.getStop() == null) return;
+        StepTimings.record("step:" + stepKey(result.getName()), (result.getStop() - result.getStart()) * 1_000_000L);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        try {
+            Path dir = ConfigReader.snapshot().timingsDir();
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            Path report = StepTimings.writeReport(dir, stamp);
+            if (report != null) log.info("Step timing report written: {}", report.toAbsolutePath());
+        } catch (Exception e) {
+            log.warn("Step timing report could not be written: {}", e.getMessage());
+        }
+    }
+
+    static String stepKey(String name) {
+        if (name == null) return "?";
+        int colon = name.indexOf(':');
+        return (colon > 0 ? name.substring(0, colon) : name).trim();
+    }
+}
@@ -39,6 +39,17 @@ public class ResultsPageLocator {
     public static final By priceMoneyInt          = By.cssSelector("div.summary-average-price span.money-int");
     public static final By summaryAveragePrice    = By.cssSelector(".summary-average-price[data-testid='flightInfoPrice']");
 
+    // ===== Kart içi alanlar (CSS; hem WebElement hem JS çıkarımında kullanılır) =====
+    public static final String cardItemCss          = "div.flight-item";
+    public static final String thyFilterLabelCss    = "label[for*='TK']";
+    public static final String cardDepartureTimeCss = ".flight-summary-time .flight-departure-time";
+    public static final String cardArrivalTimeCss   = ".flight-summary-time .flight-arrival-time";
+    public static final String cardAirlineCss       = ".summary-marketing-airlines[data-testid]";
+    public static final String cardPriceCss         = ".summary-average-price[data-testid='flightInfoPrice'] .money-int";
+    public static final String cardCurrencyCss      = ".summary-average-price[data-testid='flightInfoPrice']"; // data-currency
+    public static final String cardDurationCss      = ".summary-duration";
+    public static final String cardTransitCss       = ".summary-transit";
+
     //for critical journey
     public static final By clickFirstFlightCard = By.xpath("//*[@id=\"flight-0\"]/div[1]");
     public static final By selectFirstFlightCardBtn = By.cssSelector("button[data-testid='providerSelectBtn']");
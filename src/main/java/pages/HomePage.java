@@ -44,17 +44,22 @@ public class HomePage extends BasePage {
     public HomePage setDates(String depart, String ret) {
         // 🟢 Select departure date
         click(HomePageLocator.departDateInput);
-        shortWait(0.2);
+        waitForCalendarDay(depart);
         selectDateFromCalendar(depart, "Departure");
 
         // 🟢 Select return date
         click(HomePageLocator.returnDateInput);
-        shortWait(0.2);
+        waitForCalendarDay(ret);
         selectDateFromCalendar(ret, "Return");
 
         return this;
     }
 
+    /** Takvim açılıp ilgili gün butonu render edilene ve animasyon bitene kadar bekler. */
+    private void waitForCalendarDay(String date) {
+        waitForDomStable(null, String.format("button[title='%s']", date), 150, 3000);
+    }
+
     private void selectDateFromCalendar(String date, String type) {
         // Expected format: "2025-10-29"
         String locator = String.format("//button[@title='%s']", date);
@@ -75,7 +80,11 @@ public class HomePage extends BasePage {
     public HomePage ensureHotelsListUnchecked() {
         try {
             WebElement cbInput = wait.until(ExpectedConditions.presenceOfElementLocated(HomePageLocator.checkboxInput));
-            Thread.sleep(1000);
+            // form hidrasyonu checkbox durumunu sonradan değiştirebiliyor; yalnızca checkbox'ın label'ı izlenir
+            // (burada class / checked attribute değişimi de sayılır, ağ sayılmaz)
+            WebElement label = (WebElement) ((JavascriptExecutor) driver).executeScript(
+                    "return arguments[0].closest('label') || arguments[0].parentElement;", cbInput);
+            waitForDomStable(label, null, 300, 3000, true, false);
             if (cbInput.isSelected()) {
                 WebElement span = driver.findElement(HomePageLocator.checkboxSpan);
                 ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView({block:'center'});", span);
@@ -6,9 +6,17 @@ import locator.ResultsPageLocator;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedConditions;
+import utils.SnapshotStore;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class ResultsPage extends BasePage {
 
@@ -26,15 +34,10 @@ public class ResultsPage extends BasePage {
         // 2) Wait until the container is present in the DOM (presence, not visibility)
         wait.until(ExpectedConditions.presenceOfElementLocated(ResultsPageLocator.resultsContainer));
 
-        // 3) Wait until cards are loaded (manual polling)
-        long end = System.currentTimeMillis() + 20000; // 20 sec timeout
-        List<WebElement> cards = new ArrayList<>();
-        while (System.currentTimeMillis() < end) {
-            cards = driver.findElements(ResultsPageLocator.anyResultItem);
-            if (cards != null && !cards.isEmpty()) break;
-            shortWait(0.3);
-        }
-        if (cards == null || cards.isEmpty()) {
+        // 3) Wait until cards are rendered and the list stops changing (in-browser MutationObserver)
+        waitForListStable(ResultsPageLocator.cardItemCss, 400, 20000);
+        List<WebElement> cards = driver.findElements(ResultsPageLocator.anyResultItem);
+        if (cards.isEmpty()) {
             throw new TimeoutException("Flight cards did not load (anyResultItem).");
         }
 
@@ -61,10 +64,11 @@ public class ResultsPage extends BasePage {
         WebElement left = wait.until(ExpectedConditions.visibilityOfElementLocated(ResultsPageLocator.leftHandle));
         WebElement right = wait.until(ExpectedConditions.visibilityOfElementLocated(ResultsPageLocator.rightHandle));
 
-        // Drag left and right handles to target positions
+        // Drag left and right handles to target positions; the list re-filters after each move
         moveHandleToMinutes(container, left, fromMin);
-        shortWait(1);
+        waitForListStable(null, 300, 5000);
         moveHandleToMinutes(container, right, toMin);
+        waitForListStable(null, 300, 5000);
 
         // Verify
         wait.until(d -> String.valueOf(fromMin).equals(left.getAttribute("aria-valuenow")));
@@ -116,7 +120,7 @@ public class ResultsPage extends BasePage {
     public ResultsPage filterOnlyTHY() {
         try {
             click(ResultsPageLocator.airlinesDropdown);
-            shortWait(0.5);
+            waitForDomStable(null, ResultsPageLocator.thyFilterLabelCss, 200, 3000);   // dropdown açılsın
             click(ResultsPageLocator.thyFilterCheckbox);
             log.info("Filtered for Turkish Airlines flights only.");
         } catch (Exception ignored) {}
@@ -164,31 +168,253 @@ public class ResultsPage extends BasePage {
 
     @Step("Extract flight data rows from cards")
     public List<String[]> extractFlightRows() {
+        try {
+            List<String[]> rows = extractFlightRowsViaScript();
+            log.info("{} flight rows extracted in a single script call.", rows.size());
+            return rows;
+        } catch (WebDriverException | IllegalStateException e) {
+            log.warn("Script extraction failed, falling back to per-element extraction: {}", e.getMessage());
+            return extractFlightRowsPerElement();
+        }
+    }
+
+    /**
+     * Tüm kartları tarayıcıda tek bir executeScript ile okur (kart başına ~8 WebDriver isteği yerine 1).
+     * Alan metinleri getText() gibi görünür metin olarak alınır; sonuç per-element yoluyla aynı biçimdedir.
+     */
+    public List<String[]> extractFlightRowsViaScript() {
+        List<String[]> cards = runExtractScript(false);
+        List<String[]> rows = new ArrayList<>(cards.size());
+        for (String[] card : cards) rows.add(Arrays.copyOf(card, 7));
+        return rows;
+    }
+
+    /**
+     * Sonuç listesini adım adım kaydırarak tüm kartları toplar ve her yeni kartı hemen sink'e iletir
+     * (ör. açık bir CSV oturumu). Sanal (virtualized) listelerde DOM'da o an olmayan kartlar da yakalanır.
+     * Her adımda DOM'daki bütün kartlar yeniden okunur (sanal listeler aynı düğümü başka uçuş için kullanır);
+     * tekilleştirme yalnızca kart içeriği + kimliği anahtarıyla yapılır. Fiyatı ya da saati henüz render
+     * edilmemiş kart sonraki adımlarda yeniden okunur; sonuna kadar tamamlanmazsa iletilmez, yalnızca sayısı loglanır
+     * (boş fiyat 0 olarak ayrıştırılır ve özetlerde / skorlarda / fiyat geçmişinde en ucuz uçuş gibi görünürdü).
+     * Art arda {@value #HARVEST_IDLE_STEPS} adım yeni kart gelmezse durur.
+     *
+     * @return sink'e iletilen tekil satır sayısı
+     */
+    @Step("Harvest flight rows while scrolling the result list")
+    public int harvestFlightRows(Consumer<String[]> sink) {
+        Set<String> seen = new HashSet<>();
+        Map<String, String[]> pending = new LinkedHashMap<>();   // render'ı tamamlanmamış kartlar
+        int emitted = 0;
+        int idle = 0;
+        for (int step = 0; step < HARVEST_MAX_STEPS && idle < HARVEST_IDLE_STEPS; step++) {
+            List<String[]> batch;
+            try {
+                batch = runExtractScript(true);
+            } catch (WebDriverException | IllegalStateException e) {
+                log.warn("Script harvest failed at step {}, falling back to per-element extraction: {}", step, e.getMessage());
+                batch = extractFlightRowsPerElement();
+                idle = HARVEST_IDLE_STEPS;   // yedek yol kaydıramaz; görüneni alıp bitir
+            }
+
+            int added = 0;
+            for (String[] card : batch) {
+                String[] row = Arrays.copyOf(card, 7);
+                String id = card.length > 7 ? card[7] : "";
+                if (!rendered(row)) {
+                    pending.putIfAbsent(id.isEmpty() ? cardKey(row, "") : id, row);
+                    continue;
+                }
+                if (seen.add(cardKey(row, id))) {
+                    if (!id.isEmpty()) pending.remove(id);
+                    pending.values().removeIf(p -> id.isEmpty() && sameSoFar(p, row));
+                    sink.accept(row);
+                    emitted++;
+                    added++;
+                }
+            }
+            if (added == 0) idle++;
+            else idle = 0;
+            log.debug("Harvest step {}: {} new cards ({} total, {} not rendered yet)", step, added, emitted, pending.size());
+            if (idle < HARVEST_IDLE_STEPS) waitForListStable(null, HARVEST_QUIET_MS, 3000);   // lazy-load için
+        }
+        if (!pending.isEmpty()) {
+            log.warn("{} card(s) never finished rendering (no departure time or price); skipped.", pending.size());
+            for (String[] row : pending.values()) log.debug("Skipped unrendered card: {}", String.join(";", row));
+        }
+        log.info("{} unique flight rows harvested.", emitted);
+        return emitted;
+    }
+
+    /** Kalkış saati ve fiyatı okunmuş mu (sanal listede yeni doldurulan kartta ikisi de sonradan gelir). */
+    private static boolean rendered(String[] row) {
+        return !row[0].isEmpty() && !row[3].isEmpty();
+    }
+
+    /** Eksik okunmuş kartın dolu alanları tamamlanmış satırla aynı mı. */
+    private static boolean sameSoFar(String[] partial, String[] row) {
+        for (int i = 0; i < partial.length; i++) {
+            if (!partial[i].isEmpty() && !partial[i].equals(row[i])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Tekilleştirme anahtarı: saatler, havayolu, fiyat, süre, aktarma ve kartın kimliği (id / data-*-id / ilk bağlantı).
+     * Bu alanların hepsi aynı olan iki kart aynı uçuştur.
+     */
+    private static String cardKey(String[] row, String cardId) {
+        return row[0] + '|' + row[1] + '|' + row[2] + '|' + row[3] + '|' + row[5] + '|' + row[6] + '|' + cardId;
+    }
+
+    /**
+     * Çıkarım script'ini çalıştırır; her satır 7 CSV alanı + kart kimliği (8. eleman, yoksa "").
+     * @param scroll true ise okumadan sonra listenin son kartı görünür alana kaydırılır (sonraki sayfayı yükletir)
+     */
+    private List<String[]> runExtractScript(boolean scroll) {
+        Object raw = ((JavascriptExecutor) driver).executeScript(EXTRACT_CARDS_JS,
+                ResultsPageLocator.cardItemCss,
+                List.of(ResultsPageLocator.cardDepartureTimeCss, ResultsPageLocator.cardArrivalTimeCss,
+                        ResultsPageLocator.cardAirlineCss, ResultsPageLocator.cardPriceCss,
+                        ResultsPageLocator.cardCurrencyCss, ResultsPageLocator.cardDurationCss,
+                        ResultsPageLocator.cardTransitCss),
+                scroll);
+        if (!(raw instanceof List<?> cards)) {
+            throw new IllegalStateException("Unexpected extraction script result: " + raw);
+        }
+
+        List<String[]> rows = new ArrayList<>(cards.size());
+        for (Object card : cards) {
+            if (!(card instanceof List<?> f) || f.size() != 8) {
+                throw new IllegalStateException("Unexpected card tuple: " + card);
+            }
+            String[] row = Arrays.copyOf(toRow(str(f.get(0)), str(f.get(1)), str(f.get(2)), str(f.get(3)),
+                    str(f.get(4)), str(f.get(5)), str(f.get(6))), 8);
+            row[7] = str(f.get(7));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /** Kart başına findElement + getText ile çıkarım (script çalışmazsa yedek yol). */
+    public List<String[]> extractFlightRowsPerElement() {
         List<WebElement> cards = driver.findElements(ResultsPageLocator.anyResultItem);
         List<String[]> rows = new ArrayList<>();
 
         for (WebElement card : cards) {
-            String dep = getTextSafe(card, ".flight-summary-time .flight-departure-time");
-            String arr = getTextSafe(card, ".flight-summary-time .flight-arrival-time");
-            String airline = getTextSafe(card, ".summary-marketing-airlines[data-testid]");
-            String price = getTextSafe(card, ".summary-average-price[data-testid='flightInfoPrice'] .money-int");
+            String dep = getTextSafe(card, ResultsPageLocator.cardDepartureTimeCss);
+            String arr = getTextSafe(card, ResultsPageLocator.cardArrivalTimeCss);
+            String airline = getTextSafe(card, ResultsPageLocator.cardAirlineCss);
+            String price = getTextSafe(card, ResultsPageLocator.cardPriceCss);
             String currency = getAttributeSafe(card);
-            String duration = getTextSafe(card, ".summary-duration");
-            String stops = getTextSafe(card, ".summary-transit");
-
-            dep = dep.replace(" -", "").trim();
-            arr = arr.replace(" -", "").trim();
-            price = price.replaceAll("[^0-9]", "").trim();
-            duration = duration.trim();
-            stops = stops.trim();
-            airline = airline.trim();
-            currency = currency.isEmpty() ? "TRY" : currency;
-
-            rows.add(new String[]{dep, arr, airline, price, currency, duration, stops});
+            String duration = getTextSafe(card, ResultsPageLocator.cardDurationCss);
+            String stops = getTextSafe(card, ResultsPageLocator.cardTransitCss);
+
+            rows.add(toRow(dep, arr, airline, price, currency, duration, stops));
         }
         return rows;
     }
 
+    /**
+     * Capture modu açıksa ({@code snapshots.capture=true}) sonuç sayfasının o anki DOM'unu snapshot olarak kaydeder;
+     * replay testi aynı çıkarım kodunu bu sayfaya karşı çevrimdışı çalıştırır.
+     *
+     * @return snapshot adı; capture kapalıysa ya da kaydedilemediyse null
+     */
+    @Step("Capture result page snapshot: {prefix}")
+    public String captureSnapshot(String prefix) {
+        if (!SnapshotStore.captureEnabled()) return null;
+        try {
+            String html = (String) ((JavascriptExecutor) driver).executeScript(SNAPSHOT_JS);
+            SnapshotStore store = SnapshotStore.fromConfig();
+            String name = store.save(prefix, html);
+            log.info("Result page snapshot saved: {}", store.file(name));
+            return name;
+        } catch (IOException | WebDriverException e) {
+            log.warn("Result page snapshot could not be saved: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // DOM'un kopyası: script / iframe / harici stylesheet kaldırılır, okunabilen CSS kuralları tek <style>'a gömülür
+    // (görünürlük replay'de de aynı kalsın), resimler ağa gitmesin diye boşaltılır.
+    private static final String SNAPSHOT_JS = """
+            var doc = document.documentElement.cloneNode(true);
+            doc.querySelectorAll('script, noscript, iframe, link[rel="stylesheet"], link[rel="preload"], link[rel="prefetch"]')
+               .forEach(function (n) { n.remove(); });
+            var css = '';
+            for (var i = 0; i < document.styleSheets.length; i++) {
+              try {
+                var rules = document.styleSheets[i].cssRules;
+                for (var j = 0; j < rules.length; j++) css += rules[j].cssText + '\n';
+              } catch (e) { /* farklı origin'den gelen sheet okunamaz */ }
+            }
+            var style = document.createElement('style');
+            style.setAttribute('data-snapshot', 'inlined');
+            style.textContent = css;
+            (doc.querySelector('head') || doc).appendChild(style);
+            doc.querySelectorAll('img').forEach(function (img) {
+              img.removeAttribute('srcset');
+              img.setAttribute('src', 'data:,');
+            });
+            return '<!DOCTYPE html>\n' + doc.outerHTML;
+            """;
+
+    private static final int HARVEST_MAX_STEPS = 200;
+    private static final int HARVEST_IDLE_STEPS = 3;
+    private static final long HARVEST_QUIET_MS = 300;
+
+    // Kartların alanlarını [dep, arr, airline, price, currency, duration, stops, kimlik] dizileri olarak döndürür.
+    // Metin getText() gibi: görünmeyen element "", nbsp → boşluk, baş/son boşluklar kırpılır.
+    // Kimlik: kartın id'si, data-flight-id / data-id ya da ilk bağlantının href'i (yoksa "").
+    // arguments[2] true ise sonda son kart görünür alana kaydırılır.
+    private static final String EXTRACT_CARDS_JS = """
+            var cards = document.querySelectorAll(arguments[0]);
+            var sel = arguments[1];
+            function text(card, css) {
+              var el = card.querySelector(css);
+              if (!el || el.getClientRects().length === 0) return '';
+              return (el.innerText || '').replace(/\u00a0/g, ' ').trim();
+            }
+            function attr(card, css, name) {
+              var el = card.querySelector(css);
+              var v = el ? el.getAttribute(name) : null;
+              return v == null ? '' : v.trim();
+            }
+            function ident(card) {
+              var link = card.querySelector('a[href]');
+              return card.id || card.getAttribute('data-flight-id') || card.getAttribute('data-id')
+                  || (link ? link.getAttribute('href') : '') || '';
+            }
+            var out = [];
+            for (var i = 0; i < cards.length; i++) {
+              var c = cards[i];
+              out.push([text(c, sel[0]), text(c, sel[1]), text(c, sel[2]), text(c, sel[3]),
+                        attr(c, sel[4], 'data-currency'), text(c, sel[5]), text(c, sel[6]), ident(c)]);
+            }
+            if (arguments[2] && cards.length > 0) {
+              cards[cards.length - 1].scrollIntoView({block: 'start'});
+            }
+            return out;
+            """;
+
+    /** Ham kart metinlerini CSV satırına normalize eder (iki çıkarım yolu için ortak). */
+    private static String[] toRow(String dep, String arr, String airline, String price,
+                                  String currency, String duration, String stops) {
+        dep = dep.replace(" -", "").trim();
+        arr = arr.replace(" -", "").trim();
+        price = price.replaceAll("[^0-9]", "").trim();
+        duration = duration.trim();
+        stops = stops.trim();
+        airline = airline.trim();
+        currency = currency.isEmpty() ? "TRY" : currency;
+
+        return new String[]{dep, arr, airline, price, currency, duration, stops};
+    }
+
+    private static String str(Object o) {
+        return o == null ? "" : o.toString();
+    }
+
     // ====== HELPERS ======
 
     private double readHandleLeftPercent(WebElement handle) {
@@ -216,6 +442,12 @@ public class ResultsPage extends BasePage {
         }
     }
 
+    /** Sonuç listesi konteyneri (varsa) altında DOM sakinleşene kadar bekler; bkz. {@link #waitForDomStable}. */
+    private boolean waitForListStable(String readyCss, long quietMs, long timeoutMs) {
+        List<WebElement> container = driver.findElements(ResultsPageLocator.resultsContainer);
+        return waitForDomStable(container.isEmpty() ? null : container.get(0), readyCss, quietMs, timeoutMs);
+    }
+
     private int getCardsCount() {
         wait.until(ExpectedConditions.visibilityOfElementLocated(ResultsPageLocator.resultsContainer));
         return driver.findElements(ResultsPageLocator.anyResultItem).size();
@@ -238,9 +470,7 @@ public class ResultsPage extends BasePage {
                 return;
             } catch (StaleElementReferenceException | ElementClickInterceptedException e) {
                 if (attempt == retries) throw e;
-                try {
-                    Thread.sleep(250);
-                } catch (InterruptedException ignored) {}
+                waitForListStable(null, 150, 2000);   // kart yeniden render ediliyor
             }
         }
     }
@@ -292,9 +522,5 @@ public class ResultsPage extends BasePage {
                 .moveByOffset(deltaX, 0)
                 .release()
                 .perform();
-
-        try {
-            Thread.sleep(150);
-        } catch (InterruptedException ignored) {}
     }
 }
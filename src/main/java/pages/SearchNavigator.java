@@ -0,0 +1,140 @@
+package pages;
+
+import base.BasePage;
+import io.qameta.allure.Step;
+import locator.ResultsPageLocator;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.ConfigReader;
+import utils.ConfigSnapshot;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Arama sonuç sayfasını form doldurmadan, doğrudan {@code /ucak-bileti/arama/...} URL'i ile açar.
+ * Formu doğrulamayan akışlar (ör. veri çıkarma) için; form testleri HomePage'i kullanmaya devam eder.
+ *
+ * Şehir → havalimanı kodu eşlemesi {@code search.cityCodes} anahtarından okunur ("Istanbul:ista,Ankara:esb").
+ * Kodu bilinmeyen bir şehir verilirse ya da sonuç listesi {@code search.direct.timeoutSec} içinde gelmezse
+ * (URL biçimi değişmiş olabilir) HomePage formuyla aranır.
+ */
+public class SearchNavigator extends BasePage {
+
+    private static final DateTimeFormatter URL_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final Locale TR = Locale.forLanguageTag("tr-TR");
+
+    private static volatile CityCodes cityCodes;
+
+    private final long explicitWaitSec;
+
+    public SearchNavigator(WebDriver driver, long explicitWaitSec) {
+        super(driver, explicitWaitSec);
+        this.explicitWaitSec = explicitWaitSec;
+    }
+
+    /**
+     * Sonuç sayfasını açar ve kartlar yüklenene kadar bekler.
+     *
+     * @param depart yyyy-MM-dd
+     * @param ret    yyyy-MM-dd; null ise tek yön (form yedeği yalnızca gidiş-dönüş destekler)
+     */
+    @Step("Open search results directly: {from} → {to}, {depart} / {ret}")
+    public ResultsPage open(String baseUrl, String from, String to, String depart, String ret) {
+        String url = buildUrl(baseUrl, from, to, LocalDate.parse(depart), ret == null ? null : LocalDate.parse(ret), 1);
+        if (url != null) {
+            driver.get(url);
+            acceptCookiesIfPresent();
+            if (resultsAppear()) {
+                log.info("Search results opened directly: {}", url);
+                return new ResultsPage(driver, explicitWaitSec).waitForResults();
+            }
+            log.warn("Direct search URL did not show results, falling back to the form: {}", url);
+        } else {
+            log.warn("No airport code configured for '{}' or '{}' (search.cityCodes); using the form.", from, to);
+        }
+        if (ret == null) throw new IllegalStateException("Form fallback supports round-trip searches only");
+
+        HomePage home = new HomePage(driver, explicitWaitSec)
+                .goTo(baseUrl)
+                .ensureRoundTrip()
+                .setFrom(from)
+                .setTo(to)
+                .ensureHotelsListUnchecked()
+                .setDates(depart, ret);
+        home.search();
+        return new ResultsPage(driver, explicitWaitSec).waitForResults();
+    }
+
+    /**
+     * Ör. {@code https://www.enuygun.com/ucak-bileti/arama/istanbul-ankara-ista-esb/?gidis=20.11.2025&donus=27.11.2025&yetiskin=1&sinif=ekonomi}
+     *
+     * @return şehirlerden birinin kodu bilinmiyorsa null
+     */
+    public static String buildUrl(String baseUrl, String from, String to, LocalDate depart, LocalDate ret, int adults) {
+        Map<String, String> codes = cityCodes();
+        String fromCode = codes.get(key(from));
+        String toCode = codes.get(key(to));
+        if (fromCode == null || toCode == null) return null;
+
+        StringBuilder url = new StringBuilder(baseUrl.replaceAll("/+$", ""))
+                .append("/ucak-bileti/arama/")
+                .append(slug(from)).append('-').append(slug(to)).append('-')
+                .append(fromCode).append('-').append(toCode)
+                .append("/?gidis=").append(depart.format(URL_DATE));
+        if (ret != null) url.append("&donus=").append(ret.format(URL_DATE));
+        url.append("&yetiskin=").append(Math.max(1, adults)).append("&sinif=ekonomi");
+        return url.toString();
+    }
+
+    // ---------- helpers ----------
+
+    /** Yönlendirme bitip sonuç kapsayıcısı DOM'a girene kadar (kısa süreli) bekler. */
+    private boolean resultsAppear() {
+        try {
+            new WebDriverWait(driver, ConfigReader.snapshot().searchDirectTimeout()).until(ExpectedConditions.and(
+                    ExpectedConditions.urlContains("/ucak-bileti/arama"),
+                    ExpectedConditions.presenceOfElementLocated(ResultsPageLocator.resultsContainer)));
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /** {@code search.cityCodes} snapshot başına bir kez ayrıştırılır; config yeniden yüklenince yenilenir. */
+    private static Map<String, String> cityCodes() {
+        ConfigSnapshot cfg = ConfigReader.snapshot();
+        CityCodes cached = cityCodes;
+        if (cached == null || cached.source != cfg) {
+            Map<String, String> codes = new HashMap<>();
+            for (String pair : cfg.getOrDefault("search.cityCodes", "").split(",")) {
+                int colon = pair.indexOf(':');
+                if (colon <= 0) continue;
+                codes.put(key(pair.substring(0, colon)), pair.substring(colon + 1).trim().toLowerCase(Locale.ROOT));
+            }
+            cached = new CityCodes(cfg, Map.copyOf(codes));
+            cityCodes = cached;
+        }
+        return cached.codes;
+    }
+
+    private record CityCodes(ConfigSnapshot source, Map<String, String> codes) {}
+
+    /** "İstanbul", "Istanbul" ve "istanbul" aynı anahtara düşsün */
+    private static String key(String city) {
+        return slug(city);
+    }
+
+    /** URL parçası: Türkçe karakterler ASCII'ye, boşluklar '-' */
+    private static String slug(String city) {
+        String s = city.trim().toLowerCase(TR)
+                .replace('ı', 'i').replace('ş', 's').replace('ğ', 'g')
+                .replace('ü', 'u').replace('ö', 'o').replace('ç', 'c');
+        return s.replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+    }
+}
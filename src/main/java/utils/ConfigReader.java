@@ -1,43 +1,217 @@
 package utils;
 
-import java.io.FileInputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
+/**
+ * config.properties erişimi. Ayarlar bir kez okunup değişmez bir {@link ConfigSnapshot}'a çevrilir;
+ * statik metotlar o anki snapshot'a bakar (string parse ya da System.getProperty çağrısı yapmaz).
+ *
+ * Yükleme sırası (sonraki öncekini ezer):
+ * <ol>
+ *   <li>{@code config.properties}: {@code -Dconfig.file} verildiyse o dosya, yoksa classpath, o da yoksa
+ *       {@code src/main/resources/config.properties}</li>
+ *   <li>{@code config.profile} (-D ya da dosyadaki anahtar; virgülle birden fazla) için
+ *       {@code config-<profil>.properties} katmanları, aynı yerden</li>
+ *   <li>-D system property'leri</li>
+ * </ol>
+ * {@code config.watch=true} ise kaynak dosya(lar) diskteyse değişiklikte snapshot yeniden kurulur.
+ */
 public class ConfigReader {
-    private static final Properties props = new Properties();
+    private static final Logger log = LogManager.getLogger(ConfigReader.class);
+
+    private static final String BASE_NAME = "config";
+    private static final Path SOURCE_DIR = Path.of("src/main/resources");
+
+    private static volatile ConfigSnapshot snapshot = load();
+    private static volatile Thread watcher;
 
     static {
-        try (InputStreamReader reader = new InputStreamReader(
-                new FileInputStream("src/main/resources/config.properties"), StandardCharsets.UTF_8)) {
-            props.load(reader);
-        } catch (IOException e) {
-            throw new RuntimeException("config.properties file could not be read (UTF-8): " + e.getMessage(), e);
-        }
+        if (snapshot.getBoolean("config.watch", false)) startWatcher();
+    }
+
+    /** O anki ayarlar; bir test boyunca aynı nesneyi tutmak tutarlı okuma sağlar. */
+    public static ConfigSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /** Dosyaları ve system property'leri yeniden okuyup snapshot'ı değiştirir. */
+    public static synchronized ConfigSnapshot reload() {
+        snapshot = load();
+        log.info("Configuration reloaded from {}", snapshot.sources());
+        return snapshot;
     }
 
     public static String get(String key) {
-        String sys = System.getProperty(key);
-        if (sys != null && !sys.isBlank()) return sys;
-        return props.getProperty(key);
+        return snapshot.get(key);
     }
 
     public static int getInt(String key) {
-        return Integer.parseInt(get(key));
+        return snapshot.getInt(key);
     }
 
     public static String getOrDefault(String key, String defaultValue) {
-        String value = get(key);
-        return (value != null && !value.isBlank()) ? value : defaultValue;
+        return snapshot.getOrDefault(key, defaultValue);
     }
 
     public static int getIntOrDefault(String key, int defaultValue) {
+        return snapshot.getIntOrDefault(key, defaultValue);
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        return snapshot.getBoolean(key, defaultValue);
+    }
+
+    // ---------- loading ----------
+
+    private static ConfigSnapshot load() {
+        List<Properties> layers = new ArrayList<>();
+        List<String> sources = new ArrayList<>();
+
+        String explicit = System.getProperty("config.file");
+        Path explicitDir = null;
+        if (explicit != null && !explicit.isBlank()) {
+            Path file = Path.of(explicit);
+            layers.add(readFile(file));
+            sources.add(file.toString());
+            explicitDir = file.toAbsolutePath().getParent();
+        } else if (!readLayer(BASE_NAME + ".properties", null, layers, sources)) {
+            throw new RuntimeException("config.properties could not be found on the classpath or under " + SOURCE_DIR);
+        }
+
+        String profiles = System.getProperty("config.profile", layers.get(0).getProperty("config.profile", ""));
+        for (String profile : profiles.split(",")) {
+            String p = profile.trim();
+            if (p.isEmpty()) continue;
+            if (!readLayer(BASE_NAME + "-" + p + ".properties", explicitDir, layers, sources)) {
+                log.warn("Config profile '{}' has no {}-{}.properties; ignored.", p, BASE_NAME, p);
+            }
+        }
+
+        layers.add(System.getProperties());
+        return new ConfigSnapshot(layers, sources);
+    }
+
+    /** dir verildiyse oradan, yoksa classpath → src/main/resources sırasıyla arar. */
+    private static boolean readLayer(String name, Path dir, List<Properties> layers, List<String> sources) {
+        if (dir != null) {
+            Path file = dir.resolve(name);
+            if (!Files.isRegularFile(file)) return false;
+            layers.add(readFile(file));
+            sources.add(file.toString());
+            return true;
+        }
+        URL url = ConfigReader.class.getClassLoader().getResource(name);
+        if (url != null) {
+            try (InputStream in = url.openStream()) {
+                layers.add(read(in));
+                sources.add(url.toString());
+                return true;
+            } catch (IOException e) {
+                throw new RuntimeException(name + " could not be read (UTF-8): " + e.getMessage(), e);
+            }
+        }
+        Path file = SOURCE_DIR.resolve(name);
+        if (!Files.isRegularFile(file)) return false;
+        layers.add(readFile(file));
+        sources.add(file.toString());
+        return true;
+    }
+
+    private static Properties readFile(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        } catch (IOException e) {
+            throw new RuntimeException(file + " could not be read (UTF-8): " + e.getMessage(), e);
+        }
+    }
+
+    private static Properties read(InputStream in) throws IOException {
+        Properties props = new Properties();
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+        return props;
+    }
+
+    // ---------- watch ----------
+
+    /** Diskteki kaynak dosyaların klasörlerini izler; bir .properties değişince snapshot'ı yeniden kurar. */
+    private static synchronized void startWatcher() {
+        if (watcher != null) return;
+        List<Path> dirs = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (String source : snapshot.sources()) {
+            Path file = toPath(source);
+            if (file != null && file.toAbsolutePath().getParent() != null) {
+                Path dir = file.toAbsolutePath().getParent();
+                if (!dirs.contains(dir)) dirs.add(dir);
+                names.add(file.getFileName().toString());
+            }
+        }
+        if (dirs.isEmpty()) {
+            log.warn("config.watch=true but no configuration file is on disk; reload disabled.");
+            return;
+        }
+        try {
+            WatchService ws = FileSystems.getDefault().newWatchService();
+            for (Path dir : dirs) dir.register(ws, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            watcher = new Thread(() -> watch(ws, names), "config-watch");
+            watcher.setDaemon(true);
+            watcher.start();
+            log.info("Watching {} for configuration changes.", dirs);
+        } catch (IOException e) {
+            log.warn("Configuration watch could not be started: {}", e.getMessage());
+        }
+    }
+
+    private static void watch(WatchService ws, List<String> names) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = ws.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                // yeni eklenen bir profil dosyası da sayılır
+                if (event.context() instanceof Path p && (names.contains(p.toString())
+                        || (p.toString().startsWith(BASE_NAME + "-") && p.toString().endsWith(".properties")))) {
+                    changed = true;
+                }
+            }
+            key.reset();
+            if (changed) {
+                try {
+                    reload();
+                } catch (RuntimeException e) {
+                    // yarım kaydedilmiş dosya vb.: eski snapshot geçerli kalır
+                    log.warn("Configuration reload failed, keeping the previous values: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Path toPath(String source) {
         try {
-            return Integer.parseInt(get(key));
-        } catch (Exception e) {
-            return defaultValue;
+            if (source.startsWith("file:")) return Path.of(new URL(source).toURI());
+            if (source.contains(":") && !Files.exists(Path.of(source))) return null;   // jar: vb.
+            return Path.of(source);
+        } catch (URISyntaxException | IOException | InvalidPathException e) {
+            return null;
         }
     }
 }
@@ -0,0 +1,248 @@
+package utils;
+
+import org.testng.xml.XmlSuite;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalUnit;
+import java.util.*;
+
+/**
+ * config.properties (+ profil katmanları + -D system property'leri) için bir kez kurulan değişmez görünüm.
+ * Değerler kurulurken bir kez ayrıştırılır: int, boolean ve süre olarak okunabilenler ayrı tablolarda tutulur,
+ * böylece sık çağrılan yerler string parse etmez, {@code getIntOrDefault} istisna yakalamaz.
+ * Sık kullanılan WebDriver, havuz, suite ve snapshot ayarları doğrudan tipli alan olarak sunulur.
+ */
+public final class ConfigSnapshot {
+
+    private final Map<String, String> values;
+    private final Map<String, Integer> ints;
+    private final Map<String, Boolean> booleans;
+    private final Map<String, Duration> durations;
+    private final List<String> sources;
+
+    // BaseTest.setUp'ın her testte okuduğu ayarlar
+    private final String browser;
+    private final boolean headless;
+    private final long explicitWaitSec;
+    private final DriverFactory.Profile driverProfile;
+    private final DriverFactory.Profile analysisDriverProfile;
+
+    // çıktı klasörleri
+    private final String screenshotDir;
+    private final Path timingsDir;
+
+    // driver.pool.* ve extraction profili
+    private final int driverPoolSize;
+    private final int driverPoolMaxUses;
+    private final boolean driverPoolHealthCheck;
+    private final Duration driverPoolLeaseTimeout;
+    private final int driverPoolWarmup;
+    private final List<String> blockedUrls;
+
+    // suite.*, snapshots.*, search.*
+    private final XmlSuite.ParallelMode suiteParallel;
+    private final int suiteThreadCount;
+    private final Path snapshotsDir;
+    private final boolean snapshotsCapture;
+    private final Duration searchDirectTimeout;
+
+    /**
+     * @param layers  sırayla üst üste uygulanır (sonraki öncekini ezer); boş değerler yok sayılır
+     * @param sources katmanların nereden okunduğu (log / hata mesajı için)
+     */
+    ConfigSnapshot(List<Properties> layers, List<String> sources) {
+        Map<String, String> merged = new HashMap<>();
+        for (Properties layer : layers) {
+            for (String key : layer.stringPropertyNames()) {
+                String v = layer.getProperty(key);
+                if (v != null && !v.isBlank()) merged.put(key, v);
+            }
+        }
+
+        Map<String, Integer> i = new HashMap<>();
+        Map<String, Boolean> b = new HashMap<>();
+        Map<String, Duration> d = new HashMap<>();
+        merged.forEach((k, v) -> {
+            Integer n = parseInt(v);
+            if (n != null) i.put(k, n);
+            String t = v.trim();
+            if (t.equalsIgnoreCase("true") || t.equalsIgnoreCase("false")) b.put(k, Boolean.parseBoolean(t));
+            Duration dur = parseDuration(t);
+            if (dur != null) d.put(k, dur);
+        });
+
+        this.values = Map.copyOf(merged);
+        this.ints = Map.copyOf(i);
+        this.booleans = Map.copyOf(b);
+        this.durations = Map.copyOf(d);
+        this.sources = List.copyOf(sources);
+
+        this.browser = getOrDefault("browser", "chrome");
+        this.headless = getBoolean("headless", false);
+        this.explicitWaitSec = getIntOrDefault("explicitWait", 25);
+        this.driverProfile = DriverFactory.Profile.of(get("driver.profile"));
+        this.analysisDriverProfile = DriverFactory.Profile.of(getOrDefault("analysis.driverProfile", get("driver.profile")));
+
+        this.screenshotDir = getOrDefault("screenshotDir", "target/screenshots");
+        this.timingsDir = Path.of(getOrDefault("timings.dir", "target/step-timings"));
+
+        this.driverPoolSize = getIntOrDefault("driver.pool.size", 0);
+        this.driverPoolMaxUses = getIntOrDefault("driver.pool.maxUses", 20);
+        this.driverPoolHealthCheck = getBoolean("driver.pool.healthCheck", true);
+        this.driverPoolLeaseTimeout = getDuration("driver.pool.leaseTimeoutSec", ChronoUnit.SECONDS,
+                Duration.ofSeconds(120));
+        this.driverPoolWarmup = getIntOrDefault("driver.pool.warmup", 0);
+        this.blockedUrls = splitList(getOrDefault("driver.extraction.blockedUrls", ""));
+
+        this.suiteParallel = XmlSuite.ParallelMode.getValidParallel(getOrDefault("suite.parallel", "none"));
+        this.suiteThreadCount = Math.max(1, getIntOrDefault("suite.threadCount", 4));
+        this.snapshotsDir = Path.of(getOrDefault("snapshots.dir", "src/test/resources/snapshots"));
+        this.snapshotsCapture = getBoolean("snapshots.capture", false);
+        this.searchDirectTimeout = getDuration("search.direct.timeoutSec", ChronoUnit.SECONDS,
+                Duration.ofSeconds(15));
+    }
+
+    public String browser() { return browser; }
+
+    public boolean headless() { return headless; }
+
+    public long explicitWaitSec() { return explicitWaitSec; }
+
+    /** {@code driver.profile}; boş / bilinmeyen → DEFAULT */
+    public DriverFactory.Profile driverProfile() { return driverProfile; }
+
+    /** {@code analysis.driverProfile} (TC4); yoksa {@link #driverProfile()} */
+    public DriverFactory.Profile analysisDriverProfile() { return analysisDriverProfile; }
+
+    /** {@code screenshotDir}: hata ekran görüntüsü / sayfa kaynağı kökü; paralel koşumda altına işçi klasörü eklenir */
+    public String screenshotDir() { return screenshotDir; }
+
+    /** {@code timings.dir}: adım süre raporlarının klasörü */
+    public Path timingsDir() { return timingsDir; }
+
+    /** {@code driver.pool.size}; 0 → havuz kapalı */
+    public int driverPoolSize() { return driverPoolSize; }
+
+    public int driverPoolMaxUses() { return driverPoolMaxUses; }
+
+    public boolean driverPoolHealthCheck() { return driverPoolHealthCheck; }
+
+    /** {@code driver.pool.leaseTimeoutSec}: birimsiz sayı saniye, "90s" / "2m" de olur */
+    public Duration driverPoolLeaseTimeout() { return driverPoolLeaseTimeout; }
+
+    public int driverPoolWarmup() { return driverPoolWarmup; }
+
+    /** {@code driver.extraction.blockedUrls}: virgülle ayrılmış, kırpılmış, boşlar atılmış */
+    public List<String> blockedUrls() { return blockedUrls; }
+
+    /** {@code suite.parallel}; geçersiz değer → NONE */
+    public XmlSuite.ParallelMode suiteParallel() { return suiteParallel; }
+
+    /** {@code suite.threadCount}, en az 1 */
+    public int suiteThreadCount() { return suiteThreadCount; }
+
+    public Path snapshotsDir() { return snapshotsDir; }
+
+    public boolean snapshotsCapture() { return snapshotsCapture; }
+
+    /** {@code search.direct.timeoutSec}: birimsiz sayı saniye, "500ms" / "20s" de olur */
+    public Duration searchDirectTimeout() { return searchDirectTimeout; }
+
+    /** Okunan dosyalar (ör. "classpath:config.properties", "classpath:config-extraction.properties"). */
+    public List<String> sources() { return sources; }
+
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    public String getOrDefault(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    /** @throws NumberFormatException anahtar yoksa ya da tam sayı değilse */
+    public int getInt(String key) {
+        Integer v = ints.get(key);
+        if (v == null) throw new NumberFormatException("Config key '" + key + "' is not an int: " + values.get(key));
+        return v;
+    }
+
+    public int getIntOrDefault(String key, int defaultValue) {
+        return ints.getOrDefault(key, defaultValue);
+    }
+
+    /** Yalnızca "true" / "false" (büyük-küçük harf duyarsız) tanınır; diğer her şey varsayılan. */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return booleans.getOrDefault(key, defaultValue);
+    }
+
+    /** "250ms", "15s", "2m", "1h" ya da ISO-8601 ("PT30S"); birimsiz sayılar süre sayılmaz. */
+    public Duration getDuration(String key, Duration defaultValue) {
+        return durations.getOrDefault(key, defaultValue);
+    }
+
+    /** Birimli değerler {@link #getDuration(String, Duration)} gibi; birimsiz tam sayılar {@code bareUnit} cinsinden. */
+    public Duration getDuration(String key, TemporalUnit bareUnit, Duration defaultValue) {
+        Duration d = durations.get(key);
+        if (d != null) return d;
+        Integer n = ints.get(key);
+        return n != null ? Duration.of(n, bareUnit) : defaultValue;
+    }
+
+    public Set<String> keys() {
+        return values.keySet();
+    }
+
+    // ---------- parsing ----------
+
+    private static List<String> splitList(String raw) {
+        return Arrays.stream(raw.split(","))
+                .map(String::trim)
+                .filter(p -> !p.isEmpty())
+                .toList();
+    }
+
+    /** Integer.parseInt ile aynı kabul (baş/son boşluk kırpılmış), ama istisnasız. */
+    static Integer parseInt(String s) {
+        String t = s.trim();
+        int n = t.length();
+        if (n == 0 || n > 11) return null;
+        int i = 0;
+        boolean neg = false;
+        if (t.charAt(0) == '-' || t.charAt(0) == '+') {
+            neg = t.charAt(0) == '-';
+            if (++i == n) return null;
+        }
+        long v = 0;
+        for (; i < n; i++) {
+            char c = t.charAt(i);
+            if (c < '0' || c > '9') return null;
+            v = v * 10 + (c - '0');
+        }
+        v = neg ? -v : v;
+        return v < Integer.MIN_VALUE || v > Integer.MAX_VALUE ? null : (int) v;
+    }
+
+    static Duration parseDuration(String t) {
+        if (t.length() > 2 && (t.charAt(0) == 'P' || t.charAt(0) == 'p')) {
+            try {
+                return Duration.parse(t);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        int unitStart = 0;
+        while (unitStart < t.length() && Character.isDigit(t.charAt(unitStart))) unitStart++;
+        if (unitStart == 0 || unitStart == t.length() || unitStart > 18) return null;
+        long amount = Long.parseLong(t.substring(0, unitStart));
+        return switch (t.substring(unitStart).trim().toLowerCase(Locale.ROOT)) {
+            case "ms" -> Duration.ofMillis(amount);
+            case "s" -> Duration.ofSeconds(amount);
+            case "m", "min" -> Duration.ofMinutes(amount);
+            case "h" -> Duration.ofHours(amount);
+            default -> null;
+        };
+    }
+}
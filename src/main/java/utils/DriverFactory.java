@@ -1,47 +1,159 @@
 package utils;
 
 import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class DriverFactory {
 
     private static final ThreadLocal<WebDriver> tlDriver = new ThreadLocal<>();
+    private static final ThreadLocal<DriverPool> tlPool = new ThreadLocal<>();
+
+    // WebDriverManager sürücü indirme/çözümlemesi tarayıcı başına bir kez (başarılı olana kadar tekrar denenir)
+    private static final Set<String> setupDone = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Object> setupLocks = new ConcurrentHashMap<>();
+    // driver.pool.size > 0 ise "browser|headless|profile" başına bir havuz
+    private static final Map<String, DriverPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Tarayıcı profili. EXTRACTION yalnızca veri okuyan akışlar içindir: DOM hazır olunca dönülür
+     * (pageLoadStrategy=eager), resimler yüklenmez ve {@code driver.extraction.blockedUrls} desenleri
+     * (analytics, reklam, font ...) Chrome'da CDP ile engellenir.
+     */
+    public enum Profile {
+        DEFAULT, EXTRACTION;
+
+        /** "extraction" → EXTRACTION; boş / bilinmeyen → DEFAULT */
+        public static Profile of(String name) {
+            return "extraction".equalsIgnoreCase(name == null ? "" : name.trim()) ? EXTRACTION : DEFAULT;
+        }
+    }
 
     public static void initDriver(String browser, boolean headless) {
+        initDriver(browser, headless, ConfigReader.snapshot().driverProfile());
+    }
+
+    public static void initDriver(String browser, boolean headless, Profile profile) {
         if (tlDriver.get() != null) return;
 
+        int poolSize = ConfigReader.snapshot().driverPoolSize();
+        if (poolSize > 0) {
+            DriverPool pool = pool(browser, headless, profile, poolSize);
+            tlDriver.set(pool.lease());
+            tlPool.set(pool);
+        } else {
+            tlDriver.set(createDriver(browser, headless, profile));
+        }
+    }
+
+    /** Yeni bir tarayıcı oturumu açar (havuz ya da havuzsuz mod için). */
+    public static WebDriver createDriver(String browser, boolean headless) {
+        return createDriver(browser, headless, Profile.DEFAULT);
+    }
+
+    public static WebDriver createDriver(String browser, boolean headless, Profile profile) {
+        boolean extraction = profile == Profile.EXTRACTION;
         switch (browser.toLowerCase()) {
             case "firefox":
-                WebDriverManager.firefoxdriver().setup();
+                ensureSetup("firefox", () -> WebDriverManager.firefoxdriver().setup());
                 FirefoxOptions fopts = new FirefoxOptions();
                 if (headless) fopts.addArguments("-headless");
                 fopts.setCapability("moz:webdriverClick", false);
-                tlDriver.set(new FirefoxDriver(fopts));
-                tlDriver.get().manage().window().maximize();
-                break;
+                if (extraction) {
+                    fopts.setPageLoadStrategy(PageLoadStrategy.EAGER);
+                    fopts.addPreference("permissions.default.image", 2);
+                    // Firefox'ta CDP Network.setBlockedURLs yok; URL engelleme yalnızca Chrome'da
+                }
+                WebDriver firefox = new FirefoxDriver(fopts);
+                firefox.manage().window().maximize();
+                return firefox;
 
             case "chrome":
             default:
-                WebDriverManager.chromedriver().setup();
+                ensureSetup("chrome", () -> WebDriverManager.chromedriver().setup());
                 ChromeOptions copts = new ChromeOptions();
                 if (headless) copts.addArguments("--headless=new");
                 copts.addArguments("--start-maximized", "--disable-gpu", "--disable-notifications");
-                tlDriver.set(new ChromeDriver(copts));
+                if (extraction) {
+                    copts.setPageLoadStrategy(PageLoadStrategy.EAGER);
+                    copts.setExperimentalOption("prefs", Map.of("profile.managed_default_content_settings.images", 2));
+                }
+                ChromeDriver chrome = new ChromeDriver(copts);
+                if (extraction) blockUrls(chrome, ConfigReader.snapshot().blockedUrls());
+                return chrome;
+        }
+    }
+
+    /**
+     * Sürücü ikilisini tarayıcı başına bir kez çözer. Aynı tarayıcı için eşzamanlı çağıranlar kurulum bitene kadar
+     * bekler; kurulum hata verirse (ağ, önbellek kilidi) işaretlenmez, sonraki çağrı yeniden dener.
+     */
+    private static void ensureSetup(String browser, Runnable setup) {
+        if (setupDone.contains(browser)) return;
+        synchronized (setupLocks.computeIfAbsent(browser, k -> new Object())) {
+            if (setupDone.contains(browser)) return;
+            setup.run();
+            setupDone.add(browser);
         }
     }
 
+    /** Verilen desenlere (ör. {@code *google-analytics.com*}) uyan istekler tarayıcıdan hiç çıkmaz. */
+    private static void blockUrls(ChromeDriver chrome, List<String> patterns) {
+        if (patterns.isEmpty()) return;
+        chrome.executeCdpCommand("Network.enable", Map.of());
+        chrome.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", patterns));
+    }
+
     public static WebDriver getDriver() {
         return tlDriver.get();
     }
 
+    /** Havuz modunda oturumu temizleyip havuza iade eder, aksi halde tarayıcıyı kapatır. */
     public static void quitDriver() {
-        if (tlDriver.get() != null) {
-            tlDriver.get().quit();
+        WebDriver driver = tlDriver.get();
+        if (driver != null) {
+            DriverPool pool = tlPool.get();
+            if (pool != null) pool.release(driver);
+            else driver.quit();
             tlDriver.remove();
+            tlPool.remove();
         }
     }
+
+    /** Oturum bozulduysa (ör. tarayıcı çöktü) havuza iade etmeden kapatır. */
+    public static void discardDriver() {
+        WebDriver driver = tlDriver.get();
+        if (driver != null) {
+            DriverPool pool = tlPool.get();
+            if (pool != null) pool.discard(driver);
+            else {
+                try {
+                    driver.quit();
+                } catch (RuntimeException ignored) {
+                }
+            }
+            tlDriver.remove();
+            tlPool.remove();
+        }
+    }
+
+    private static DriverPool pool(String browser, boolean headless, Profile profile, int size) {
+        return pools.computeIfAbsent(browser.toLowerCase() + "|" + headless + "|" + profile, key -> {
+            ConfigSnapshot cfg = ConfigReader.snapshot();
+            DriverPool p = new DriverPool(key, () -> createDriver(browser, headless, profile), size,
+                    cfg.driverPoolMaxUses(), cfg.driverPoolHealthCheck(), cfg.driverPoolLeaseTimeout().toMillis());
+            int warmup = Math.min(size, cfg.driverPoolWarmup());
+            if (warmup > 0) p.warmUp(warmup);
+            return p;
+        });
+    }
 }
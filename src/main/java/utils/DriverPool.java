@@ -0,0 +1,205 @@
+package utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Tarayıcı oturumu havuzu: en fazla {@code size} canlı WebDriver tutar, testlere kiralar (lease) ve geri alır.
+ * İade edilen oturum temizlenir (fazla pencereler, çerezler, storage, about:blank) ve tekrar kullanılır;
+ * {@code maxUses} kullanımdan sonra ya da temizlik / sağlık kontrolü başarısız olursa kapatılıp yenisi açılır.
+ * JVM kapanırken tüm oturumlar kapatılır.
+ */
+public class DriverPool {
+
+    private static final Logger log = LogManager.getLogger(DriverPool.class);
+
+    private final String name;
+    private final Supplier<WebDriver> factory;
+    private final int maxUses;
+    private final boolean healthCheck;
+    private final long leaseTimeoutMs;
+
+    private final Semaphore permits;                                   // canlı oturum sayısı ≤ size
+    private final BlockingQueue<Session> idle = new LinkedBlockingQueue<>();
+    private final Set<Session> all = ConcurrentHashMap.newKeySet();
+    private final Map<WebDriver, Session> leased = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /** Havuzdaki tek bir tarayıcı ve kaç kez kiralandığı. */
+    private static final class Session {
+        final WebDriver driver;
+        int uses;
+
+        Session(WebDriver driver) { this.driver = driver; }
+    }
+
+    /**
+     * @param size           en fazla canlı oturum
+     * @param maxUses        bir oturumun kaç test sonra yenileneceği (≤ 0: sınırsız)
+     * @param healthCheck    kiralamadan önce oturumun yaşadığı doğrulansın mı
+     * @param leaseTimeoutMs tüm oturumlar kullanımdayken en fazla bekleme
+     */
+    public DriverPool(String name, Supplier<WebDriver> factory, int size, int maxUses,
+                      boolean healthCheck, long leaseTimeoutMs) {
+        this.name = name;
+        this.factory = factory;
+        this.permits = new Semaphore(Math.max(1, size));
+        this.maxUses = maxUses;
+        this.healthCheck = healthCheck;
+        this.leaseTimeoutMs = leaseTimeoutMs;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "driver-pool-shutdown-" + name));
+    }
+
+    /** n oturumu paralel olarak önceden açar (boş kapasite kadar). */
+    public void warmUp(int n) {
+        List<CompletableFuture<Void>> starting = new ArrayList<>();
+        for (int i = 0; i < n && permits.tryAcquire(); i++) {
+            starting.add(CompletableFuture.runAsync(() -> {
+                try {
+                    Session s = open();
+                    idle.offer(s);
+                } catch (RuntimeException e) {
+                    permits.release();
+                    log.warn("[{}] Warm-up session could not be started: {}", name, e.getMessage());
+                }
+            }));
+        }
+        CompletableFuture.allOf(starting.toArray(CompletableFuture[]::new)).join();
+        log.info("[{}] Driver pool warmed up: {} idle session(s).", name, idle.size());
+    }
+
+    /** Boşta bir oturum verir; yoksa kapasite varsa yenisini açar, yoksa biri iade edilene kadar bekler. */
+    public WebDriver lease() {
+        long deadline = System.currentTimeMillis() + leaseTimeoutMs;
+        while (!closed) {
+            Session s = idle.poll();
+            if (s == null && permits.tryAcquire()) {
+                try {
+                    s = open();
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+            if (s == null) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) break;
+                try {
+                    s = idle.poll(remaining, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a WebDriver session", e);
+                }
+                if (s == null) continue;
+            }
+            if (healthCheck && !isAlive(s)) {
+                log.warn("[{}] Pooled session is not responding; replacing it.", name);
+                destroy(s);
+                continue;
+            }
+            s.uses++;
+            leased.put(s.driver, s);
+            return s.driver;
+        }
+        throw new IllegalStateException("[" + name + "] No WebDriver session available within " + leaseTimeoutMs + " ms");
+    }
+
+    /** Oturumu havuza geri verir; temizlenemezse ya da kullanım sınırına geldiyse kapatır. */
+    public void release(WebDriver driver) {
+        Session s = leased.remove(driver);
+        if (s == null) {
+            // bu havuza ait değil
+            quietly(driver::quit);
+            return;
+        }
+        if (closed || (maxUses > 0 && s.uses >= maxUses) || !reset(s)) {
+            destroy(s);
+            return;
+        }
+        idle.offer(s);
+    }
+
+    /** Bozuk olduğu bilinen oturumu kapatır (ör. tarayıcı çöktü); yeri bir sonraki lease'de yeniden açılır. */
+    public void discard(WebDriver driver) {
+        Session s = leased.remove(driver);
+        if (s != null) destroy(s);
+        else quietly(driver::quit);
+    }
+
+    /** Tüm oturumları kapatır (shutdown hook'tan da çağrılır). */
+    public void shutdown() {
+        if (closed) return;
+        closed = true;
+        for (Session s : all) quietly(s.driver::quit);
+        all.clear();
+        idle.clear();
+        leased.clear();
+    }
+
+    // ---------- helpers ----------
+
+    private Session open() {
+        Session s = new Session(factory.get());
+        all.add(s);
+        return s;
+    }
+
+    private void destroy(Session s) {
+        if (all.remove(s)) permits.release();
+        quietly(s.driver::quit);
+    }
+
+    private static boolean isAlive(Session s) {
+        try {
+            s.driver.getWindowHandle();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /** Bir sonraki test temiz bir tarayıcı görsün: tek pencere, çerez / storage yok, about:blank. */
+    private boolean reset(Session s) {
+        WebDriver d = s.driver;
+        try {
+            String keep = null;
+            for (String handle : d.getWindowHandles()) {
+                if (keep == null) { keep = handle; continue; }
+                d.switchTo().window(handle);
+                d.close();
+            }
+            if (keep != null) d.switchTo().window(keep);
+
+            // storage yalnızca açık sayfanın origin'i için temizlenebilir; about:blank'e geçmeden önce yap
+            quietly(() -> ((JavascriptExecutor) d).executeScript(
+                    "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}"));
+            d.manage().deleteAllCookies();
+            if (d instanceof ChromiumDriver chromium) {
+                // deleteAllCookies yalnızca geçerli domain'i siler; CDP tüm tarayıcıyı temizler
+                quietly(() -> chromium.executeCdpCommand("Network.clearBrowserCookies", Map.of()));
+            }
+            d.get("about:blank");
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("[{}] Session reset failed; recycling it: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private static void quietly(Runnable r) {
+        try {
+            r.run();
+        } catch (RuntimeException ignored) {
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package utils;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.testng.ITestResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Başarısız test için screenshot + page source'u tek seferde alır.
+ * Tarayıcıdan okuma test thread'inde yapılır (driver henüz açıkken); PNG'nin diske yazılması, HTML'in
+ * gzip'lenmesi ve Allure eklerinin yazılması arka plandaki tek bir yazıcı thread'ine bırakılır.
+ * Allure ek kayıtları ({@code prepareAttachment}) çağıran thread'de açılır, böylece ekler doğru teste bağlanır.
+ *
+ * Aynı test için ikinci çağrı (TestListener + BaseTest) hiçbir şey yapmaz: sonuç ITestResult attribute'unda tutulur.
+ */
+public final class FailureArtifacts {
+    private static final Logger log = LogManager.getLogger(FailureArtifacts.class);
+
+    /** ITestResult attribute anahtarı; değeri yakalanan {@link Capture}. */
+    public static final String RESULT_ATTRIBUTE = "failure.artifacts";
+
+    private static final ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "failure-artifact-writer");
+                t.setDaemon(true);
+                return t;
+            });
+
+    static {
+        // JVM kapanırken kuyruktaki ekler yarım kalmasın
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> awaitPending(30), "failure-artifact-flush"));
+    }
+
+    private FailureArtifacts() {}
+
+    /** Tarayıcıdan bir kez okunan ham veriler ve yazılacakları yerler. */
+    public record Capture(byte[] png, String html, Path screenshot, Path pageSource) {}
+
+    /**
+     * Screenshot ve page source'u bir kez alır, yazımı kuyruğa koyar.
+     *
+     * @return yakalanan veriler; driver yoksa null, bu test için zaten yakalandıysa öncekiler
+     */
+    public static Capture capture(ITestResult result, WebDriver driver) {
+        synchronized (result) {
+            Object existing = result.getAttribute(RESULT_ATTRIBUTE);
+            if (existing instanceof Capture c) return c;
+            if (driver == null) return null;
+
+            byte[] png = null;
+            String html = null;
+            try {
+                png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            } catch (Exception e) {
+                log.warn("Screenshot could not be taken: {}", e.getMessage());
+            }
+            try {
+                html = driver.getPageSource();
+            } catch (Exception e) {
+                log.warn("Page source could not be read: {}", e.getMessage());
+            }
+
+            // paralel koşumda aynı saniyede düşen testler birbirinin dosyasını ezmesin
+            Path dir = RunContext.outputDir(ConfigReader.snapshot().screenshotDir());
+            String base = RunContext.uniqueName(result.getMethod().getMethodName(), "");
+            Capture c = new Capture(png, html,
+                    png == null ? null : dir.resolve(base + ".png"),
+                    html == null ? null : dir.resolve(base + ".html.gz"));
+            result.setAttribute(RESULT_ATTRIBUTE, c);
+            enqueue(c);
+            return c;
+        }
+    }
+
+    /** Kuyruktaki tüm yazımların bitmesini bekler (suite sonunda, Allure raporu üretilmeden önce). */
+    public static boolean awaitPending(long timeoutSec) {
+        Future<?> marker = writer.submit(() -> {});
+        try {
+            marker.get(timeoutSec, TimeUnit.SECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+            log.warn("Failure artifacts still pending after {} s", timeoutSec);
+            return false;
+        }
+    }
+
+    // ---------- writer ----------
+
+    private static void enqueue(Capture c) {
+        AllureLifecycle allure = Allure.getLifecycle();
+        boolean inTest = allure.getCurrentTestCaseOrStep().isPresent();
+        // ek kayıtları burada (testin thread'inde) açılır, içerik sonra yazılır
+        String pngSource = inTest && c.png() != null ? allure.prepareAttachment("Failure Screenshot", "image/png", ".png") : null;
+        String htmlSource = inTest && c.html() != null ? allure.prepareAttachment("Page Source", "text/html", ".html") : null;
+
+        writer.execute(() -> {
+            byte[] html = c.html() == null ? null : c.html().getBytes(StandardCharsets.UTF_8);
+            try {
+                if (c.png() != null) {
+                    Files.createDirectories(c.screenshot().getParent());
+                    Files.write(c.screenshot(), c.png());
+                    log.error("Screenshot saved: {}", c.screenshot());
+                }
+                if (html != null) {
+                    Files.createDirectories(c.pageSource().getParent());
+                    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(c.pageSource()))) {
+                        out.write(html);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Failure artifacts could not be saved", e);
+            }
+            if (pngSource != null) allure.writeAttachment(pngSource, new ByteArrayInputStream(c.png()));
+            if (htmlSource != null) allure.writeAttachment(htmlSource, new ByteArrayInputStream(html));
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link SnapshotStore}'daki sayfaları loopback üzerinde sunan gömülü HTTP sunucusu (JDK HttpServer).
+ * Snapshot'lar {@code /ucak-bileti/arama/<ad>/} yolundan sunulur; böylece ResultsPage.waitForResults'un
+ * URL kontrolü canlı sitedeki gibi geçer. Diğer tüm istekler (css, font, favicon ...) 404 döner.
+ */
+public class ReplayServer implements AutoCloseable {
+    private static final Logger log = LogManager.getLogger(ReplayServer.class);
+
+    public static final String PATH_PREFIX = "/ucak-bileti/arama/";
+
+    private final SnapshotStore store;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, byte[]> cache = new ConcurrentHashMap<>();
+
+    /** Boş bir porta bağlanır ve hemen dinlemeye başlar. */
+    public ReplayServer(SnapshotStore store) throws IOException {
+        this.store = store;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newFixedThreadPool(4, r -> {
+            Thread t = new Thread(r, "replay-http");
+            t.setDaemon(true);
+            return t;
+        });
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        log.info("Replay server serving {} on {}", store.dir().toAbsolutePath(), baseUrl());
+    }
+
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /** Snapshot'ın tarayıcıda açılacak adresi. */
+    public String url(String name) {
+        return baseUrl() + PATH_PREFIX + name + "/";
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            String path = ex.getRequestURI().getPath();
+            byte[] body = null;
+            if ("GET".equals(ex.getRequestMethod()) && path.startsWith(PATH_PREFIX)) {
+                String name = path.substring(PATH_PREFIX.length()).replaceAll("/+$", "");
+                body = cache.computeIfAbsent(name, n -> {
+                    try {
+                        return store.read(n);
+                    } catch (IOException | IllegalArgumentException e) {
+                        return null;   // yok ya da geçersiz ad → 404
+                    }
+                });
+            }
+            if (body == null) {
+                byte[] msg = ("Not found: " + path).getBytes(StandardCharsets.UTF_8);
+                ex.sendResponseHeaders(404, msg.length);
+                ex.getResponseBody().write(msg);
+                return;
+            }
+            ex.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            ex.getResponseHeaders().set("Cache-Control", "no-store");
+            ex.sendResponseHeaders(200, body.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,40 @@
+package utils;
+
+import org.testng.xml.XmlSuite;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Paralel koşumda testlerin birbirinin çıktısını ezmemesi için thread'e özel yol ve isimler.
+ * {@code suite.parallel=none} iken yollar değişmez (seri koşumun klasör düzeni korunur).
+ */
+public final class RunContext {
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS");
+    private static final AtomicLong seq = new AtomicLong();
+
+    private RunContext() {}
+
+    /** config'teki {@code suite.parallel} none dışında bir değerse true. */
+    public static boolean isParallel() {
+        return ConfigReader.snapshot().suiteParallel() != XmlSuite.ParallelMode.NONE;
+    }
+
+    /** Geçerli worker'ın dosya adına uygun adı; thread adındaki ayraçlar "_" olur. */
+    public static String worker() {
+        return Thread.currentThread().getName().replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    /** Paralel koşumda {@code base/<worker>}, seri koşumda {@code base}. */
+    public static Path outputDir(String base) {
+        return isParallel() ? Path.of(base, worker()) : Path.of(base);
+    }
+
+    /** Aynı saniyede / aynı anda üretilse de çakışmayan artifact adı: prefix_zaman_worker_sıra.ext */
+    public static String uniqueName(String prefix, String extension) {
+        return prefix + "_" + LocalDateTime.now().format(STAMP) + "_" + worker() + "_" + seq.incrementAndGet() + extension;
+    }
+}
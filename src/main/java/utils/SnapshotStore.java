@@ -0,0 +1,82 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Sonuç sayfası DOM snapshot'larının ({@code <ad>.html}) tutulduğu klasör.
+ * Capture modunda testler sayfayı buraya yazar; replay modunda {@link ReplayServer} buradan sunar.
+ */
+public class SnapshotStore {
+
+    private static final String EXT = ".html";
+
+    private final Path dir;
+
+    public SnapshotStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /** {@code snapshots.dir} (varsayılan src/test/resources/snapshots) */
+    public static SnapshotStore fromConfig() {
+        return new SnapshotStore(ConfigReader.snapshot().snapshotsDir());
+    }
+
+    /** Capture modu açık mı ({@code snapshots.capture=true}) */
+    public static boolean captureEnabled() {
+        return ConfigReader.snapshot().snapshotsCapture();
+    }
+
+    public Path dir() { return dir; }
+
+    /**
+     * HTML'i {@code <prefix>_<zaman>_<worker>_<sıra>.html} olarak yazar (paralel koşumda da çakışmaz).
+     * Yarım yazılmış bir dosya replay'e görünmesin diye önce geçici dosyaya yazılıp taşınır.
+     *
+     * @return snapshot adı (uzantısız)
+     */
+    public String save(String prefix, String html) throws IOException {
+        Files.createDirectories(dir);
+        String name = RunContext.uniqueName(sanitize(prefix), "");
+        Path tmp = Files.createTempFile(dir, name, ".part");
+        Files.writeString(tmp, html, StandardCharsets.UTF_8);
+        Files.move(tmp, file(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return name;
+    }
+
+    /** Kayıtlı snapshot adları (sıralı); klasör yoksa boş. */
+    public List<String> names() throws IOException {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.endsWith(EXT))
+                    .map(n -> n.substring(0, n.length() - EXT.length()))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public byte[] read(String name) throws IOException {
+        return Files.readAllBytes(file(name));
+    }
+
+    /** Adı yalnızca [A-Za-z0-9_-] olan snapshot'lar çözülür (replay URL'inden klasör dışına çıkılmasın). */
+    public Path file(String name) {
+        if (!name.matches("[A-Za-z0-9_-]+")) throw new IllegalArgumentException("Invalid snapshot name: " + name);
+        return dir.resolve(name + EXT);
+    }
+
+    private static String sanitize(String prefix) {
+        // "İstanbul" → "Istanbul": Türkçe harfler ASCII'ye, kalan her şey '_'
+        String s = Normalizer.normalize(prefix.replace('ı', 'i'), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("[^A-Za-z0-9_-]+", "_");
+        return s.isEmpty() ? "snapshot" : s;
+    }
+}
@@ -0,0 +1,187 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Adım / etkileşim süreleri. Her anahtar (ör. "step:Select dates", "click") için koşum boyunca
+ * bir gecikme histogramı tutulur; ayrıca o anki testin örnekleri thread'e özel olarak biriktirilir.
+ *
+ * Kaynaklar: Allure adımları (StepTimingListener, @Step metotları ve Allure.step lambdaları) ve
+ * BasePage primitifleri (click, type, waitVisible, pressEnter, waitForDomStable).
+ * Koşum sonunda {@link #writeReport} JSON + CSV yazar; test sonunda {@link #drainCurrentTest} Allure'a eklenir.
+ */
+public final class StepTimings {
+
+    /** Histogram kova üst sınırları (ms); son kova bunun üstündeki her şey. */
+    static final long[] BUCKETS_MS = {10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000};
+
+    private static final Map<String, Histogram> run = new ConcurrentHashMap<>();
+    private static final ThreadLocal<List<Sample>> currentTest = ThreadLocal.withInitial(ArrayList::new);
+
+    private StepTimings() {}
+
+    /** Tek bir ölçüm; key başına koşum histogramına ve geçerli testin listesine eklenir. */
+    public static void record(String key, long nanos) {
+        run.computeIfAbsent(key, k -> new Histogram()).add(nanos);
+        currentTest.get().add(new Sample(key, nanos));
+    }
+
+    /** {@code action}'ı çalıştırır ve süresini (hata fırlatsa da) {@code key} altına yazar. */
+    public static <T> T time(String key, Supplier<T> action) {
+        long t0 = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(key, System.nanoTime() - t0);
+        }
+    }
+
+    public static void time(String key, Runnable action) {
+        long t0 = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(key, System.nanoTime() - t0);
+        }
+    }
+
+    /** Bu thread'de çalışan testin örneklerini CSV olarak döndürür ve listeyi sıfırlar. */
+    public static String drainCurrentTest() {
+        List<Sample> samples = currentTest.get();
+        StringBuilder sb = new StringBuilder("key;millis\n");
+        for (Sample s : samples) sb.append(csv(s.key)).append(';').append(fmt(s.nanos / 1e6)).append('\n');
+        samples.clear();
+        return sb.toString();
+    }
+
+    /** Koşum boyunca toplanan anahtar → özet (anahtara göre sıralı). */
+    public static SortedMap<String, Summary> snapshot() {
+        SortedMap<String, Summary> out = new TreeMap<>();
+        run.forEach((k, h) -> out.put(k, h.summary()));
+        return out;
+    }
+
+    /**
+     * {@code dir/step_timings_<stamp>.json} ve {@code .csv} yazar (toplam süreye göre azalan sırada).
+     * Haftalar boyunca p50/p99 kayması bu dosyalar karşılaştırılarak izlenir.
+     *
+     * @return yazılan JSON dosyası; hiç ölçüm yoksa null
+     */
+    public static Path writeReport(Path dir, String stamp) throws IOException {
+        SortedMap<String, Summary> all = snapshot();
+        if (all.isEmpty()) return null;
+        List<Map.Entry<String, Summary>> rows = new ArrayList<>(all.entrySet());
+        rows.sort((a, b) -> Double.compare(b.getValue().totalMs, a.getValue().totalMs));
+
+        StringBuilder csv = new StringBuilder("key;count;total_ms;mean_ms;min_ms;p50_ms;p90_ms;p99_ms;max_ms\n");
+        StringBuilder json = new StringBuilder("{\n  \"run\": \"").append(stamp).append("\",\n  \"bucketsMs\": ")
+                .append(Arrays.toString(BUCKETS_MS)).append(",\n  \"steps\": [");
+        for (int i = 0; i < rows.size(); i++) {
+            String key = rows.get(i).getKey();
+            Summary s = rows.get(i).getValue();
+            csv.append(csv(key)).append(';').append(s.count).append(';').append(fmt(s.totalMs)).append(';')
+                    .append(fmt(s.meanMs)).append(';').append(fmt(s.minMs)).append(';').append(fmt(s.p50Ms)).append(';')
+                    .append(fmt(s.p90Ms)).append(';').append(fmt(s.p99Ms)).append(';').append(fmt(s.maxMs)).append('\n');
+            json.append(i == 0 ? "\n" : ",\n")
+                    .append("    {\"key\": \"").append(jsonEscape(key)).append('"')
+                    .append(", \"count\": ").append(s.count)
+                    .append(", \"totalMs\": ").append(fmt(s.totalMs))
+                    .append(", \"meanMs\": ").append(fmt(s.meanMs))
+                    .append(", \"minMs\": ").append(fmt(s.minMs))
+                    .append(", \"p50Ms\": ").append(fmt(s.p50Ms))
+                    .append(", \"p90Ms\": ").append(fmt(s.p90Ms))
+                    .append(", \"p99Ms\": ").append(fmt(s.p99Ms))
+                    .append(", \"maxMs\": ").append(fmt(s.maxMs))
+                    .append(", \"histogram\": ").append(Arrays.toString(s.buckets))
+                    .append('}');
+        }
+        json.append("\n  ]\n}\n");
+
+        Files.createDirectories(dir);
+        Path jsonFile = dir.resolve("step_timings_" + stamp + ".json");
+        Files.writeString(jsonFile, json, StandardCharsets.UTF_8);
+        Files.writeString(dir.resolve("step_timings_" + stamp + ".csv"), csv, StandardCharsets.UTF_8);
+        return jsonFile;
+    }
+
+    /** Testler arasında (ör. birim testlerde) temiz başlangıç için. */
+    static void reset() {
+        run.clear();
+        currentTest.remove();
+    }
+
+    // ---------- types ----------
+
+    private record Sample(String key, long nanos) {}
+
+    /** Bir anahtarın özeti; süreler ms. {@code buckets[i]} ≤ BUCKETS_MS[i] olan örnek sayısı (son kova: üstü). */
+    public record Summary(long count, double totalMs, double meanMs, double minMs,
+                          double p50Ms, double p90Ms, double p99Ms, double maxMs, long[] buckets) {}
+
+    /** Kova sayaçları + ham örnekler (bir koşumda anahtar başına en fazla birkaç yüz örnek olur). */
+    private static final class Histogram {
+        private final long[] buckets = new long[BUCKETS_MS.length + 1];
+        private long[] samples = new long[16];
+        private int n;
+
+        synchronized void add(long nanos) {
+            long ms = nanos / 1_000_000;
+            int b = 0;
+            while (b < BUCKETS_MS.length && ms > BUCKETS_MS[b]) b++;
+            buckets[b]++;
+            if (n == samples.length) samples = Arrays.copyOf(samples, n * 2);
+            samples[n++] = nanos;
+        }
+
+        synchronized Summary summary() {
+            long[] sorted = Arrays.copyOf(samples, n);
+            Arrays.sort(sorted);
+            long total = 0;
+            for (long v : sorted) total += v;
+            return new Summary(n, total / 1e6, total / 1e6 / n, sorted[0] / 1e6,
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), sorted[n - 1] / 1e6,
+                    buckets.clone());
+        }
+
+        /** nearest-rank yüzdelik (ms) */
+        private static double percentile(long[] sorted, int p) {
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+
+    // ---------- helpers ----------
+
+    private static String fmt(double ms) {
+        return String.format(Locale.US, "%.1f", ms);
+    }
+
+    private static String csv(String s) {
+        return s.indexOf(';') >= 0 || s.indexOf('"') >= 0 ? '"' + s.replace("\"", "\"\"") + '"' : s;
+    }
+
+    private static String jsonEscape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
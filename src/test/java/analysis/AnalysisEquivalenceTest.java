@@ -0,0 +1,222 @@
+package analysis;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Analiz hızlandırmalarının (tek geçişli özet, paralel parçalar, sınırlı heap) eski, sıralama / gruplama
+ * tabanlı sürümlerle birebir aynı sonucu verdiğini üretilmiş rastgele veriyle doğrular.
+ */
+public class AnalysisEquivalenceTest {
+
+    private static final long SEED = 20251120L;
+    private static final int SLOTS = 6;
+
+    // büyük/küçük harf farkı, boşluk ve boş ad gibi sınır durumları bilerek var
+    private static final String[] AIRLINES = {
+            "THY", "Pegasus", "PEGASUS", "AJet", " SunExpress ", "", null, "Corendon", "anadolujet", "İzmir Air"
+    };
+
+    @Test(description = "summarizeByAirline (list, table, streaming) matches the legacy grouping implementation")
+    public void summaryMatchesLegacy() {
+        Random rnd = new Random(SEED);
+        for (int round = 0; round < 20; round++) {
+            List<FlightCsvRow> rows = randomRows(rnd, 1 + rnd.nextInt(5_000));
+            Map<String, PriceAggregator.PriceStats> expected = Legacy.summarizeByAirline(rows);
+            PriceAggregator agg = new PriceAggregator();
+
+            assertStats(agg.summarizeByAirline(rows), expected, "list");
+            assertStats(agg.summarizeByAirline(FlightTable.of(rows, SLOTS)), expected, "table");
+            Map<String, PriceAggregator.PriceStats> streamed = agg.summarizeByAirline(rows.stream(), SLOTS);
+            assertStats(streamed, expected, "stream", false);
+        }
+    }
+
+    @Test(description = "parallel summaries and heatmap matrices match the sequential path")
+    public void parallelMatchesSequential() {
+        Random rnd = new Random(SEED + 1);
+        for (int round = 0; round < 4; round++) {
+            // parça bölmesi MIN_PARALLEL_ROWS üstünde devreye girer; birkaç katı ve kesirli bir boy
+            List<FlightCsvRow> rows = randomRows(rnd, Chunks.MIN_PARALLEL_ROWS * (1 + round) + rnd.nextInt(1_000));
+            FlightTable table = FlightTable.of(rows, SLOTS);
+            PriceAggregator sequential = new PriceAggregator(1);
+            Map<String, PriceAggregator.PriceStats> expected = sequential.summarizeByAirline(rows);
+            List<String> airlines = sequential.airlinesSorted(rows);
+            double[][] expectedMatrix = sequential.avgPriceMatrixByAirlineAndSlot(rows, airlines, SLOTS);
+            assertStats(expected, Legacy.summarizeByAirline(rows), "sequential");
+
+            for (int parallelism : new int[]{2, 3, 8}) {
+                PriceAggregator parallel = new PriceAggregator(parallelism);
+                String label = "parallelism=" + parallelism;
+                assertStats(parallel.summarizeByAirline(rows), expected, label + " list");
+                assertStats(parallel.summarizeByAirline(table), expected, label + " table");
+                Assert.assertTrue(Arrays.deepEquals(parallel.avgPriceMatrixByAirlineAndSlot(rows, airlines, SLOTS), expectedMatrix),
+                        label + " list matrix");
+                Assert.assertTrue(Arrays.deepEquals(parallel.avgPriceMatrixByAirlineAndSlot(table, airlines, SLOTS), expectedMatrix),
+                        label + " table matrix");
+            }
+        }
+    }
+
+    @Test(description = "ScoreHeap selects the same k entries as a stable full sort, ties included")
+    public void scoreHeapMatchesStableSort() {
+        Random rnd = new Random(SEED + 2);
+        for (int round = 0; round < 2_000; round++) {
+            int n = rnd.nextInt(300);
+            int k = rnd.nextInt(40);
+            double[] scores = new double[n];
+            for (int i = 0; i < n; i++) scores[i] = rnd.nextInt(10);   // az sayıda farklı değer: bol eşitlik
+
+            ScoreHeap heap = new ScoreHeap(k);
+            for (int i = 0; i < n; i++) heap.offer(scores[i], i);
+            double[] heapScores = new double[heap.size()];
+            int[] winners = heap.drainAscending(heapScores);
+
+            // parça heap'leri (Chunks gibi rastgele sınırlı bitişik aralıklar) birleştirilince de aynı seçim
+            ScoreHeap merged = new ScoreHeap(k);
+            for (int lo = 0; lo < n; ) {
+                int hi = Math.min(n, lo + 1 + rnd.nextInt(100));
+                ScoreHeap part = new ScoreHeap(k);
+                for (int i = lo; i < hi; i++) part.offer(scores[i], i);
+                merged.addAll(part);
+                lo = hi;
+            }
+            double[] mergedScores = new double[merged.size()];
+            Assert.assertEquals(merged.drainAscending(mergedScores), winners, "merged rows n=" + n + " k=" + k);
+            Assert.assertEquals(mergedScores, heapScores, "merged scores n=" + n + " k=" + k);
+
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparingDouble(i -> scores[i]));   // stabil: eşitlikte index sırası
+            int expectedSize = Math.min(n, k);
+            Assert.assertEquals(winners.length, expectedSize, "size n=" + n + " k=" + k);
+            for (int j = 0; j < expectedSize; j++) {
+                Assert.assertEquals(winners[j], (int) order[j], "row #" + j + " n=" + n + " k=" + k);
+                Assert.assertEquals(heapScores[j], scores[order[j]], "score #" + j);
+            }
+        }
+    }
+
+    @Test(description = "ScoringService.topN (list, table, stream, parallel) equals the first N of rank")
+    public void topNMatchesRank() {
+        Random rnd = new Random(SEED + 3);
+        for (int size : new int[]{0, 1, 37, 5_000, Chunks.MIN_PARALLEL_ROWS * 3 + 11}) {
+            List<FlightCsvRow> rows = randomRows(rnd, size);
+            FlightTable table = FlightTable.of(rows, SLOTS);
+            List<ScoringService.ScoredFlight> ranked = new ScoringService(3, 250, 50).rank(rows);
+            for (int parallelism : new int[]{1, 4}) {
+                ScoringService scoring = new ScoringService(3, 250, 50, parallelism);
+                for (int n : new int[]{0, 1, 15, 200}) {
+                    List<ScoringService.ScoredFlight> expected = ranked.subList(0, Math.min(n, ranked.size()));
+                    String label = "size=" + size + " parallelism=" + parallelism + " n=" + n;
+                    assertSameFlights(scoring.topN(rows, n), expected, label + " list");
+                    assertSameFlights(scoring.topN(rows.stream(), n), expected, label + " stream");
+                    assertSameRows(scoring.topN(table, n), expected, label + " table");
+                }
+            }
+        }
+    }
+
+    // ---------- generators ----------
+
+    static List<FlightCsvRow> randomRows(Random rnd, int n) {
+        return randomRows(rnd, n, 40, 30);
+    }
+
+    /** {@code priceSteps} / {@code durationSteps} küçüldükçe eşit fiyat, süre ve birebir kopya satırlar artar. */
+    static List<FlightCsvRow> randomRows(Random rnd, int n, int priceSteps, int durationSteps) {
+        List<FlightCsvRow> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String dep = String.format("%02d:%02d", rnd.nextInt(24), rnd.nextInt(60));
+            // dar fiyat / süre aralığı: eşit skorlar ve eşit fiyatlar sık olsun
+            int price = 500 + 50 * rnd.nextInt(priceSteps);
+            int duration = 60 + 5 * rnd.nextInt(durationSteps);
+            int stops = rnd.nextInt(3);
+            rows.add(new FlightCsvRow(dep, "23:59", AIRLINES[rnd.nextInt(AIRLINES.length)], price, "TL",
+                    duration, stops, FlightCsvRow.timeToSlot(dep, SLOTS)));
+        }
+        return rows;
+    }
+
+    // ---------- assertions ----------
+
+    static void assertStats(Map<String, PriceAggregator.PriceStats> actual,
+                            Map<String, PriceAggregator.PriceStats> expected, String label) {
+        assertStats(actual, expected, label, true);
+    }
+
+    static void assertStats(Map<String, PriceAggregator.PriceStats> actual,
+                            Map<String, PriceAggregator.PriceStats> expected, String label, boolean percentiles) {
+        Assert.assertEquals(new ArrayList<>(actual.keySet()), new ArrayList<>(expected.keySet()), label + " key order");
+        for (String airline : expected.keySet()) {
+            PriceAggregator.PriceStats a = actual.get(airline), e = expected.get(airline);
+            String at = label + " [" + airline + "] ";
+            Assert.assertEquals(a.count, e.count, at + "count");
+            Assert.assertEquals(a.min, e.min, at + "min");
+            Assert.assertEquals(a.max, e.max, at + "max");
+            Assert.assertEquals(a.avg, e.avg, at + "avg");
+            Assert.assertEquals(a.stddev, e.stddev, 1e-6 * Math.max(1, e.stddev), at + "stddev");
+            if (percentiles) {
+                Assert.assertEquals(a.p50, e.p50, at + "p50");
+                Assert.assertEquals(a.p90, e.p90, at + "p90");
+            }
+        }
+    }
+
+    /** Aynı satır nesneleri, aynı sırada, aynı skorlarla. */
+    static void assertSameFlights(List<ScoringService.ScoredFlight> actual, List<ScoringService.ScoredFlight> expected,
+                                  String label) {
+        Assert.assertEquals(actual.size(), expected.size(), label + " size");
+        for (int k = 0; k < expected.size(); k++) {
+            Assert.assertSame(actual.get(k).row, expected.get(k).row, label + " row #" + k);
+            Assert.assertEquals(actual.get(k).score, expected.get(k).score, label + " score #" + k);
+        }
+    }
+
+    /** Tablo yolu satırı yeniden kurar (ad kırpılmış): beklenen satır da tablodan geçirilip CSV alanları karşılaştırılır. */
+    static void assertSameRows(List<ScoringService.ScoredFlight> actual, List<ScoringService.ScoredFlight> expected,
+                               String label) {
+        Assert.assertEquals(actual.size(), expected.size(), label + " size");
+        for (int k = 0; k < expected.size(); k++) {
+            ScoringService.ScoredFlight e = expected.get(k);
+            FlightCsvRow normalized = FlightTable.of(List.of(e.row), SLOTS).row(0);
+            Assert.assertEquals(ScoringService.toCsvRow(actual.get(k)),
+                    ScoringService.toCsvRow(new ScoringService.ScoredFlight(normalized, e.score)), label + " row #" + k);
+        }
+    }
+
+    /** Önceki (groupingBy + üç ayrı akış) özetin kopyası; stddev ve yüzdelikler sıralı listeden, iki geçişle. */
+    private static final class Legacy {
+
+        static Map<String, PriceAggregator.PriceStats> summarizeByAirline(List<FlightCsvRow> rows) {
+            Map<String, List<FlightCsvRow>> byAirline = rows.stream()
+                    .collect(Collectors.groupingBy(r -> r.airline == null ? "" : r.airline.trim()));
+
+            Map<String, PriceAggregator.PriceStats> out = new LinkedHashMap<>();
+            byAirline.forEach((airline, list) -> {
+                int count = list.size();
+                int min = list.stream().mapToInt(r -> r.price).min().orElse(0);
+                int max = list.stream().mapToInt(r -> r.price).max().orElse(0);
+                double avg = list.stream().mapToInt(r -> r.price).average().orElse(0.0);
+                double var = list.stream().mapToDouble(r -> (r.price - avg) * (r.price - avg)).sum() / count;
+                int[] sorted = list.stream().mapToInt(r -> r.price).sorted().toArray();
+                out.put(airline, new PriceAggregator.PriceStats(airline, count, min, max, avg, Math.sqrt(var),
+                        percentile(sorted, 0.50), percentile(sorted, 0.90)));
+            });
+
+            return out.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(PriceAggregator.AIRLINE_ORDER))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        }
+
+        static double percentile(int[] sorted, double q) {
+            double pos = q * (sorted.length - 1);
+            int lo = (int) Math.floor(pos);
+            int hi = Math.min(sorted.length - 1, lo + 1);
+            return sorted[lo] + (sorted[hi] - (double) sorted[lo]) * (pos - lo);
+        }
+    }
+}
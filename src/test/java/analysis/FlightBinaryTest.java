@@ -0,0 +1,135 @@
+package analysis;
+
+import com.opencsv.exceptions.CsvException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * {@code .fbin} biçiminin CSV ile aynı tabloyu verdiğini doğrular: CSV → loadTable → write → read / forEach / stream
+ * hepsi aynı satırları üretmeli. Kayıt alanına sığmayan süre / aktarma değerleri (geniş değerler tablosu),
+ * "24:00", bozuk saatler, boş havayolu ve {@code Integer.MAX_VALUE} fiyat dahil.
+ */
+public class FlightBinaryTest {
+
+    private static final long SEED = 20251126L;
+    private static final int SLOTS = 6;
+    private static final String HEADER = "departure_time;arrival_time;airline;price;currency;duration;stops";
+
+    private final CsvLoader loader = new CsvLoader();
+    private Path dir;
+
+    @BeforeMethod
+    public void createDir() throws IOException {
+        dir = Files.createTempDirectory("flight-binary-test");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDir() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+        }
+    }
+
+    @Test(description = "loadTable(csv) equals read, forEach and stream of the written .fbin, edge values included")
+    public void csvMatchesBinary() throws IOException, CsvException {
+        List<String> lines = new ArrayList<>(List.of(
+                "24:00;01:10;Pegasus;1.234;TL;1sa 10dk;Direkt Uçuş",
+                "9:5;xx:yy;THY;2147483647;TRY;2sa;1 Aktarma",
+                ";;;999;;50dk;",
+                "25:00;12:60;  ;0;EUR;;",
+                "12:00;13:00;AJet;800;EUR;2000sa;300 Aktarma",          // süre > 65535, aktarma > 127
+                "06:45;07:55;SunExpress;845;TL;1092sa 15dk;127 Aktarma"  // 65535 dk: işaret değeriyle çakışan sınır
+        ));
+        Random rnd = new Random(SEED);
+        for (FlightCsvRow r : AnalysisEquivalenceTest.randomRows(rnd, 2_000)) {
+            lines.add(r.departureTime + ";" + r.arrivalTime + ";" + (r.airline == null ? "" : r.airline) + ";" + r.price
+                    + ";" + r.currency + ";" + r.durationMin / 60 + "sa " + r.durationMin % 60 + "dk;"
+                    + (r.stopsCount == 0 ? "Direkt Uçuş" : r.stopsCount + " Aktarma"));
+        }
+        Path csv = dir.resolve("flights.csv");
+        Files.writeString(csv, HEADER + "\n" + String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+
+        FlightTable table = loader.loadTable(csv, SLOTS);
+        Assert.assertEquals(table.size, lines.size(), "csv rows");
+        Assert.assertEquals(table.durationMin[4], 120_000, "wide duration parsed");
+        Assert.assertEquals(table.stopsCount[4], 300, "wide stops parsed");
+        Path bin = FlightBinary.write(table, dir.resolve("flights" + FlightBinary.EXT));
+
+        List<String> expected = rows(table);
+        Assert.assertEquals(rows(FlightBinary.read(bin, SLOTS)), expected, "read");
+        Assert.assertEquals(rows(loader.loadTable(bin, SLOTS)), expected, "loadTable(.fbin)");
+        List<String> viaForEach = new ArrayList<>();
+        loader.forEach(bin, SLOTS, r -> viaForEach.add(text(r)));
+        Assert.assertEquals(viaForEach, expected, "forEach");
+        try (Stream<FlightCsvRow> s = loader.stream(bin, SLOTS)) {
+            Assert.assertEquals(s.map(FlightBinaryTest::text).toList(), expected, "stream");
+        }
+
+        // farklı slot sayısıyla okununca zaman dilimleri CSV'den okunmuş gibi yeniden hesaplanır
+        Assert.assertEquals(rows(FlightBinary.read(bin, 4)), rows(loader.loadTable(csv, 4)), "reslot");
+    }
+
+    @Test(description = "negative and out-of-range duration / stops survive write and read unchanged")
+    public void wideValuesRoundTrip() throws IOException {
+        int[][] values = {
+                {-5, -1}, {-70_000, Byte.MIN_VALUE}, {70_000, 128}, {0xFFFF, 127}, {0xFFFE, 0},
+                {Integer.MAX_VALUE, Integer.MIN_VALUE}, {Integer.MIN_VALUE, Integer.MAX_VALUE}, {0, -129}
+        };
+        List<FlightCsvRow> input = new ArrayList<>();
+        for (int[] v : values) {
+            input.add(new FlightCsvRow("10:00", "12:00", "THY", Integer.MAX_VALUE, "TRY", v[0], v[1], 2));
+        }
+        input.addAll(AnalysisEquivalenceTest.randomRows(new Random(SEED + 1), 500));
+        FlightTable table = FlightTable.of(input, SLOTS);
+        Path bin = FlightBinary.write(table, dir.resolve("wide" + FlightBinary.EXT));
+
+        FlightTable read = FlightBinary.read(bin, SLOTS);
+        for (int k = 0; k < values.length; k++) {
+            Assert.assertEquals(read.durationMin[k], values[k][0], "duration #" + k);
+            Assert.assertEquals(read.stopsCount[k], values[k][1], "stops #" + k);
+        }
+        List<String> expected = rows(table);
+        Assert.assertEquals(rows(read), expected, "read");
+        List<String> viaForEach = new ArrayList<>();
+        FlightBinary.forEach(bin, SLOTS, r -> viaForEach.add(text(r)));
+        Assert.assertEquals(viaForEach, expected, "forEach");
+    }
+
+    @Test(description = "version 1 files (no wide-value table) still read")
+    public void readsVersionOne() throws IOException {
+        FlightTable table = FlightTable.of(AnalysisEquivalenceTest.randomRows(new Random(SEED + 2), 300), SLOTS);
+        Path bin = FlightBinary.write(table, dir.resolve("v1" + FlightBinary.EXT));
+        byte[] bytes = Files.readAllBytes(bin);
+        ByteBuffer.wrap(bytes).putInt(4, 1);   // sürüm alanı; geniş değer sayısı zaten 0
+        Files.write(bin, bytes);
+
+        Assert.assertEquals(rows(FlightBinary.read(bin, SLOTS)), rows(table));
+    }
+
+    // ---------- yardımcılar ----------
+
+    private static List<String> rows(FlightTable t) {
+        List<String> out = new ArrayList<>(t.size);
+        for (int i = 0; i < t.size; i++) out.add(text(t.row(i)));
+        return out;
+    }
+
+    /** Bütün alanlar; satırlar equals tanımlamadığı için karşılaştırma metin üzerinden. */
+    private static String text(FlightCsvRow r) {
+        return r.departureTime + "|" + r.arrivalTime + "|" + r.airline + "|" + r.price + "|" + r.currency
+                + "|" + r.durationMin + "|" + r.stopsCount + "|" + r.timeSlot;
+    }
+}
@@ -0,0 +1,196 @@
+package analysis;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * FlightCsvRow'daki karakter taramalı parser'ların eski regex / LocalTime tabanlı sürümlerle
+ * birebir aynı sonucu (veya aynı hata tipini) verdiğini üretilmiş büyük bir girdi kümesiyle doğrular.
+ */
+public class FlightCsvRowParsersTest {
+
+    private static final long SEED = 20251113L;
+    private static final int CASES = 200_000;
+
+    // Kart metinlerinde gerçekten görülen ve sınır durumlarını zorlayan parçalar
+    private static final String[] TOKENS = {
+            "0", "1", "2", "3", "5", "9", "10", "35", "59", "60", "120", "007", "2147483647", "99999999999",
+            " ", "  ", "\t", "\n", "\u000B", "\f", "\r", " ",
+            "sa", "SA", "Sa", "s", "a", "saat", "dk", "DK", "Dk", "d", "k", "K", "g",
+            "aktarma", "Aktarma", "AKTARMA", "aktar", "direkt", "Direkt", "DİREKT", "DIREKT", "DİREKT",
+            "Uçuş", "uçuş", "İ", "I", "ı", "i", "\u0307", "\u212A",
+            ".", ",", ":", "-", "+", "TL", "TRY", "₺", "x"
+    };
+
+    @Test(description = "parseDurationToMin matches the legacy regex implementation")
+    public void durationMatchesLegacy() {
+        Random rnd = new Random(SEED);
+        assertSame(FlightCsvRow::parseDurationToMin, Legacy::parseDurationToMin, null);
+        for (int i = 0; i < CASES; i++) {
+            String s = randomText(rnd);
+            assertSame(FlightCsvRow::parseDurationToMin, Legacy::parseDurationToMin, s);
+        }
+        for (String s : new String[]{"1sa 35dk", "2sa", "50dk", "1 sa 3 5 dk", "1g 2sa 5dk", "0sa 0dk", "1S A", ""}) {
+            assertSame(FlightCsvRow::parseDurationToMin, Legacy::parseDurationToMin, s);
+        }
+    }
+
+    @Test(description = "parseStops matches the legacy regex implementation")
+    public void stopsMatchLegacy() {
+        Random rnd = new Random(SEED + 1);
+        assertSame(FlightCsvRow::parseStops, Legacy::parseStops, null);
+        for (int i = 0; i < CASES; i++) {
+            String s = randomText(rnd);
+            assertSame(FlightCsvRow::parseStops, Legacy::parseStops, s);
+        }
+        for (String s : new String[]{"Direkt Uçuş", "1 Aktarma", "2 Aktarma", "DIREKT", "DİREKT", "DI\u0307REKT", "3\taktarma", "  "}) {
+            assertSame(FlightCsvRow::parseStops, Legacy::parseStops, s);
+        }
+    }
+
+    @Test(description = "parsePrice matches the legacy regex implementation")
+    public void priceMatchesLegacy() {
+        Random rnd = new Random(SEED + 2);
+        assertSame(FlightCsvRow::parsePrice, Legacy::parsePrice, null);
+        for (int i = 0; i < CASES; i++) {
+            String s = randomText(rnd);
+            assertSame(FlightCsvRow::parsePrice, Legacy::parsePrice, s);
+        }
+        for (String s : new String[]{"838", "1.010", "1 010", "2.147.483.647", "2.147.483.648", "0000000000012", "₺"}) {
+            assertSame(FlightCsvRow::parsePrice, Legacy::parsePrice, s);
+        }
+    }
+
+    @Test(description = "timeToSlot and minuteOfDay match the legacy LocalTime implementation")
+    public void timesMatchLegacy() {
+        Random rnd = new Random(SEED + 3);
+        int[] slotCounts = {-1, 0, 1, 2, 6, 7, 24, 1440, 1441, 5000};
+        for (int i = 0; i < CASES; i++) {
+            String s = randomTime(rnd);
+            Assert.assertEquals(FlightCsvRow.minuteOfDay(s), Legacy.minuteOfDay(s), "minuteOfDay(" + s + ")");
+            int slots = slotCounts[rnd.nextInt(slotCounts.length)];
+            Assert.assertEquals(FlightCsvRow.timeToSlot(s, slots), Legacy.timeToSlot(s, slots),
+                    "timeToSlot(" + s + ", " + slots + ")");
+        }
+        for (int m = 0; m < 24 * 60; m++) {
+            String s = String.format("%02d:%02d", m / 60, m % 60);
+            Assert.assertEquals(FlightCsvRow.minuteOfDay(s), m, s);
+        }
+    }
+
+    // ---------- generators ----------
+
+    private static String randomText(Random rnd) {
+        int parts = rnd.nextInt(7);
+        StringBuilder sb = new StringBuilder();
+        for (int p = 0; p < parts; p++) {
+            if (rnd.nextInt(10) == 0) sb.append((char) rnd.nextInt(0x2200));   // arada rastgele bir karakter
+            else sb.append(TOKENS[rnd.nextInt(TOKENS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String randomTime(Random rnd) {
+        switch (rnd.nextInt(6)) {
+            case 0:
+                return String.format("%02d:%02d", rnd.nextInt(26), rnd.nextInt(62));
+            case 1:
+                return rnd.nextBoolean() ? "24:00" : "00:00";
+            case 2: {
+                // rastgele 5 karakter: rakam / ':' / boşluk / harf
+                String alphabet = "0123456789::  a-";
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < 5; i++) sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+                return sb.toString();
+            }
+            case 3:
+                return String.format("%d:%02d", rnd.nextInt(24), rnd.nextInt(60));
+            case 4:
+                return String.format("%02d:%02d", rnd.nextInt(24), rnd.nextInt(60)) + (rnd.nextBoolean() ? " " : "");
+            default:
+                return rnd.nextBoolean() ? null : randomText(rnd);
+        }
+    }
+
+    /** Aynı değer ya da aynı tipte hata bekler. */
+    private static void assertSame(Function<String, Integer> actual, Function<String, Integer> expected, String input) {
+        Object a, e;
+        try { a = actual.apply(input); } catch (RuntimeException ex) { a = ex.getClass(); }
+        try { e = expected.apply(input); } catch (RuntimeException ex) { e = ex.getClass(); }
+        if (!Objects.equals(a, e)) {
+            Assert.fail("Mismatch for input '" + escape(input) + "': actual=" + a + ", expected=" + e);
+        }
+    }
+
+    private static String escape(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            if (c < 0x20 || c > 0x7E) sb.append(String.format("\\u%04X", (int) c));
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /** Önceki (regex / LocalTime tabanlı) parser'ların birebir kopyası — referans davranış. */
+    private static final class Legacy {
+        private static final DateTimeFormatter HH_MM = DateTimeFormatter.ofPattern("HH:mm");
+
+        static int parseDurationToMin(String s) {
+            if (s == null) return 0;
+            String t = s.toLowerCase(new Locale("tr", "TR")).replaceAll("\\s+", "");
+            int h = 0, m = 0;
+            var mh = java.util.regex.Pattern.compile("(\\d+)\\s*sa").matcher(t);
+            if (mh.find()) h = Integer.parseInt(mh.group(1));
+            var mm = java.util.regex.Pattern.compile("(\\d+)\\s*dk").matcher(t);
+            if (mm.find()) m = Integer.parseInt(mm.group(1));
+            if (h == 0 && m == 0) {
+                var numbers = java.util.regex.Pattern.compile("\\d+").matcher(t);
+                int sum = 0; while (numbers.find()) sum += Integer.parseInt(numbers.group());
+                return sum;
+            }
+            return h * 60 + m;
+        }
+
+        static int parseStops(String s) {
+            if (s == null || s.isBlank()) return 0;
+            String t = s.toLowerCase(new Locale("tr", "TR")).trim();
+            if (t.contains("direkt")) return 0;
+            var m = java.util.regex.Pattern.compile("(\\d+)\\s*aktarma").matcher(t);
+            return m.find() ? Integer.parseInt(m.group(1)) : 0;
+        }
+
+        static int timeToSlot(String hhmm, int slotCount) {
+            try {
+                LocalTime lt = LocalTime.parse(hhmm, HH_MM);
+                int minutes = lt.getHour() * 60 + lt.getMinute();
+                int bucketSize = (24 * 60) / Math.max(1, slotCount);
+                return Math.min(slotCount - 1, minutes / bucketSize);
+            } catch (Exception e) {
+                return 0;
+            }
+        }
+
+        static int minuteOfDay(String hhmm) {
+            try {
+                LocalTime lt = LocalTime.parse(hhmm, HH_MM);
+                return lt.getHour() * 60 + lt.getMinute();
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+
+        static int parsePrice(String s) {
+            if (s == null) return 0;
+            String digits = s.replaceAll("[^0-9]", "");
+            return digits.isEmpty() ? 0 : Integer.parseInt(digits);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package analysis;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.stream.Stream;
+
+/**
+ * PriceHistoryStore'un diske yazıp yeniden açınca aynı gözlemleri verdiğini doğrular: seri sözlüğünü bozabilecek
+ * karakterler (';', '"', satır sonu, sekme, '\') içeren havayolu adları ve fiyatı 0 / negatif olan satırlar dahil.
+ */
+public class PriceHistoryStoreTest {
+
+    private static final int SLOTS = 6;
+    private static final LocalDate DEPART = LocalDate.of(2025, 12, 1);
+    private static final String ODD = "Say;\"Hi\"\nAir\tLines \\ Co";
+    private static final Instant DAY1 = Instant.parse("2025-11-20T08:00:00Z");
+    private static final Instant DAY1_LATER = Instant.parse("2025-11-20T20:00:00Z");
+
+    private Path dir;
+
+    @BeforeMethod
+    public void createDir() throws IOException {
+        dir = Files.createTempDirectory("price-history-test");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDir() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+        }
+    }
+
+    @Test(description = "two captures with an airline containing ; \" and a newline survive a reopen")
+    public void oddAirlineRoundTrips() throws IOException {
+        String key = PriceHistoryStore.flightKey("06:45", "08:10", 0, 85);
+        try (PriceHistoryStore h = open()) {
+            Assert.assertEquals(h.appendCapture(DAY1, table(
+                    row("06:45", "08:10", ODD, 1_500),
+                    row("09:15", "13:40", "THY", 2_875))), 2);
+            Assert.assertEquals(h.appendCapture(DAY1_LATER, table(
+                    row("06:45", "08:10", ODD, 1_200),
+                    row("09:15", "13:40", "THY", 2_990))), 2);
+        }
+
+        try (PriceHistoryStore h = open()) {
+            Assert.assertEquals(h.seriesCount(), 2, "series");
+            Assert.assertEquals(h.size(), 4, "records");
+
+            List<PriceHistoryStore.Observation> trend = h.trend(ODD, key, 10);
+            Assert.assertEquals(trend.size(), 2, "trend size");
+            Assert.assertEquals(trend.get(0), new PriceHistoryStore.Observation(DAY1, ODD, key, 1_500));
+            Assert.assertEquals(trend.get(1), new PriceHistoryStore.Observation(DAY1_LATER, ODD, key, 1_200));
+
+            List<PriceHistoryStore.Observation> all = h.range(Instant.EPOCH, Instant.parse("2100-01-01T00:00:00Z"));
+            Assert.assertEquals(all.stream().map(PriceHistoryStore.Observation::airline).toList(),
+                    List.of(ODD, "THY", ODD, "THY"), "range airlines in capture order");
+            Assert.assertEquals(h.range(DAY1_LATER, DAY1_LATER.plusSeconds(1)).size(), 2, "second capture only");
+
+            SortedMap<LocalDate, PriceHistoryStore.Observation> cheapest = h.cheapestPerDay(ZoneOffset.UTC);
+            Assert.assertEquals(cheapest.size(), 1, "days");
+            Assert.assertEquals(cheapest.get(LocalDate.of(2025, 11, 20)),
+                    new PriceHistoryStore.Observation(DAY1_LATER, ODD, key, 1_200));
+        }
+    }
+
+    @Test(description = "rows with a zero or negative price are not recorded and never become the cheapest")
+    public void nonPositivePricesAreSkipped() throws IOException {
+        try (PriceHistoryStore h = open()) {
+            Assert.assertEquals(h.appendCapture(DAY1, table(
+                    row("06:45", "08:10", "Pegasus", 0),
+                    row("07:30", "09:00", "AJet", -5),
+                    row("09:15", "13:40", "THY", 2_875))), 1);
+            Assert.assertEquals(h.appendCapture(DAY1_LATER, table(row("06:45", "08:10", "Pegasus", 0))), 0);
+        }
+        try (PriceHistoryStore h = open()) {
+            Assert.assertEquals(h.seriesCount(), 1, "no series for unpriced rows");
+            Assert.assertEquals(h.cheapestPerDay(ZoneOffset.UTC).get(LocalDate.of(2025, 11, 20)).price(), 2_875);
+            Assert.assertTrue(h.trend("Pegasus", PriceHistoryStore.flightKey("06:45", "08:10", 0, 85), 10).isEmpty());
+        }
+    }
+
+    private PriceHistoryStore open() throws IOException {
+        return PriceHistoryStore.open(dir, "Istanbul_Lefkosa", DEPART);
+    }
+
+    private static FlightCsvRow row(String dep, String arr, String airline, int price) {
+        return new FlightCsvRow(dep, arr, airline, price, "TL", 85, 0, FlightCsvRow.timeToSlot(dep, SLOTS));
+    }
+
+    private static FlightTable table(FlightCsvRow... rows) {
+        return FlightTable.of(List.of(rows), SLOTS);
+    }
+}
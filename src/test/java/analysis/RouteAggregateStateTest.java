@@ -0,0 +1,97 @@
+package analysis;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Artımlı analiz durumunun (RouteAggregateState) batch batch katlanıp her adımda diske yazılıp yeniden
+ * yüklendiğinde, bütün satırların tek seferde özetlenmesiyle aynı sayıları verdiğini doğrular.
+ */
+public class RouteAggregateStateTest {
+
+    private static final long SEED = 20251127L;
+    private static final int SLOTS = 6;
+    private static final int TOP_K = 15;
+
+    private final ScoringService scoring = new ScoringService(3, 250, 50);
+    private Path dir;
+
+    @BeforeMethod
+    public void createDir() throws IOException {
+        dir = Files.createTempDirectory("route-state-test");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDir() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+        }
+    }
+
+    @Test(description = "folding batches one at a time with a reload in between matches summarizeByAirline on all rows")
+    public void foldWithReloadMatchesFullSummary() throws IOException {
+        Random rnd = new Random(SEED);
+        Path stateFile = dir.resolve(AnalysisRunner.STATE_FILE);
+        List<FlightCsvRow> all = new ArrayList<>();
+        PriceAggregator agg = new PriceAggregator();
+
+        for (int b = 0; b < 12; b++) {
+            List<FlightCsvRow> batch = AnalysisEquivalenceTest.randomRows(rnd, rnd.nextInt(800));
+            all.addAll(batch);
+
+            RouteAggregateState state = RouteAggregateState.loadOrEmpty(stateFile, SLOTS, TOP_K);
+            Assert.assertTrue(state.fold("batch-" + b, FlightTable.of(batch, SLOTS), scoring), "batch " + b + " folded");
+            state.save(stateFile);
+
+            RouteAggregateState reloaded = RouteAggregateState.loadOrEmpty(stateFile, SLOTS, TOP_K);
+            String label = "after batch " + b;
+            Assert.assertEquals(reloaded.rowCount(), all.size(), label + " rows");
+            Assert.assertEquals(reloaded.batchIds().size(), b + 1, label + " batches");
+            AnalysisEquivalenceTest.assertStats(reloaded.stats(), agg.summarizeByAirline(all), label, false);
+
+            List<String> airlines = agg.airlinesSorted(all);
+            Assert.assertEquals(reloaded.airlinesSorted(), airlines, label + " airlines");
+            Assert.assertTrue(Arrays.deepEquals(reloaded.avgPriceMatrix(airlines),
+                    agg.avgPriceMatrixByAirlineAndSlot(all, airlines, SLOTS)), label + " matrix");
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            Assert.assertFalse(files.anyMatch(p -> p.toString().endsWith(".part")), "temp file left behind");
+        }
+    }
+
+    @Test(description = "re-folding a batch whose content hash was already folded changes nothing")
+    public void refoldingSameContentIsNoOp() throws IOException {
+        FlightTable batch = FlightTable.of(AnalysisEquivalenceTest.randomRows(new Random(SEED + 1), 500), SLOTS);
+        // aynı içerik, farklı dosya adı: batch id dosya adından değil içerikten gelir
+        Path first = FlightBinary.write(batch, dir.resolve("first" + FlightBinary.EXT));
+        Path copy = FlightBinary.write(batch, dir.resolve("copy" + FlightBinary.EXT));
+        String id = AnalysisRunner.contentId(first);
+        Assert.assertEquals(AnalysisRunner.contentId(copy), id, "same content, same id");
+
+        Path stateFile = dir.resolve(AnalysisRunner.STATE_FILE);
+        RouteAggregateState state = RouteAggregateState.loadOrEmpty(stateFile, SLOTS, TOP_K);
+        Assert.assertTrue(state.fold(id, batch, scoring), "first fold");
+        state.save(stateFile);
+        byte[] before = Files.readAllBytes(stateFile);
+
+        RouteAggregateState reloaded = RouteAggregateState.loadOrEmpty(stateFile, SLOTS, TOP_K);
+        Assert.assertFalse(reloaded.fold(AnalysisRunner.contentId(copy), FlightBinary.read(copy, SLOTS), scoring),
+                "second fold of the same content");
+        Path again = dir.resolve("again.bin");
+        reloaded.save(again);
+        Assert.assertEquals(Files.readAllBytes(again), before, "state bytes unchanged");
+        Assert.assertEquals(reloaded.rowCount(), batch.size, "rows counted once");
+    }
+}
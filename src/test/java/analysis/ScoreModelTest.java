@@ -0,0 +1,116 @@
+package analysis;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Skor modellerinin toplu çekirdeklerini ({@link ScoreModel#scoreAll}) doğrudan, yavaş ama açık tanımlarıyla
+ * karşılaştırır: Pareto için O(n²) domine sayımı, TimeOfDay için dakika dakika en yakın tercih edilen kalkış,
+ * Linear için tek satır formülü.
+ */
+public class ScoreModelTest {
+
+    private static final long SEED = 20251124L;
+    private static final int SLOTS = 6;
+    private static final int DAY = 24 * 60;
+
+    @Test(description = "Pareto Fenwick counts match a naive O(n^2) dominance count, duplicates included")
+    public void paretoMatchesNaive() {
+        Random rnd = new Random(SEED);
+        ScoreModel pareto = ScoreModel.pareto();
+        Assert.assertEquals(scoreAll(pareto, FlightTable.of(List.of(), SLOTS)).length, 0, "empty table");
+        for (int round = 0; round < 300; round++) {
+            // dar aralıklar: eşit fiyat / süre / aktarma ve birebir kopyalar sık olsun
+            int steps = 2 + rnd.nextInt(12);
+            List<FlightCsvRow> rows = AnalysisEquivalenceTest.randomRows(rnd, rnd.nextInt(400), steps, steps);
+            FlightTable t = FlightTable.of(rows, SLOTS);
+            double[] actual = scoreAll(pareto, t);
+            for (int i = 0; i < t.size; i++) {
+                int dominators = 0;
+                for (int j = 0; j < t.size; j++) {
+                    if (dominates(t, j, i)) dominators++;
+                }
+                Assert.assertEquals(actual[i], dominators, "round " + round + " row " + i);
+            }
+        }
+    }
+
+    @Test(description = "TimeOfDay adds the distance to the nearest preferred minute, across midnight too")
+    public void timeOfDayMatchesDirectPenalty() {
+        Random rnd = new Random(SEED + 1);
+        int[][] windows = {{6 * 60, 22 * 60}, {22 * 60, 6 * 60}, {0, 60}, {23 * 60 + 59, 1}, {9 * 60, 9 * 60}, {12 * 60, 12 * 60 + 1}};
+        List<FlightCsvRow> rows = AnalysisEquivalenceTest.randomRows(rnd, 3_000, 10, 10);
+        rows.add(new FlightCsvRow("", "12:00", "THY", 900, "TL", 90, 0, 0));     // kalkış saati bilinmiyor: ceza yok
+        rows.add(new FlightCsvRow("24:00", "01:00", "THY", 900, "TL", 90, 0, 0));
+        FlightTable t = FlightTable.of(rows, SLOTS);
+        ScoreModel linear = ScoreModel.linear(3, 250, 50);
+        double[] base = scoreAll(linear, t);
+
+        for (int[] w : windows) {
+            int tlPerHour = 1 + rnd.nextInt(100);
+            ScoreModel model = ScoreModel.timeOfDay(3, 250, 50, w[0], w[1], tlPerHour);
+            ScoringService scoring = new ScoringService(model, 1);
+            double[] actual = scoreAll(model, t);
+            String label = model.describe();
+            for (int i = 0; i < t.size; i++) {
+                int m = t.departureMin[i];
+                double expected = base[i] + (m < 0 || m >= DAY ? 0 : tlPerHour * minutesOutside(m, w[0], w[1]) / 60.0);
+                Assert.assertEquals(actual[i], expected, 1e-9, label + " row " + i + " dep=" + m);
+                Assert.assertEquals(model.score(t.price[i], t.durationMin[i], t.stopsCount[i], m), actual[i],
+                        label + " single row " + i);
+                Assert.assertEquals(scoring.score(rows.get(i)), actual[i], label + " parsed row " + i);
+            }
+        }
+    }
+
+    @Test(description = "Linear batch kernel equals the single-row formula for any weights")
+    public void linearKernelMatchesRowFormula() {
+        Random rnd = new Random(SEED + 2);
+        for (int round = 0; round < 200; round++) {
+            int alpha = rnd.nextInt(21) - 5;
+            int stop = rnd.nextInt(1_001) - 100;
+            int direct = rnd.nextInt(501) - 100;
+            ScoreModel model = ScoreModel.linear(alpha, stop, direct);
+            FlightTable t = FlightTable.of(AnalysisEquivalenceTest.randomRows(rnd, rnd.nextInt(2_000)), SLOTS);
+            // tampon tablodan büyük: fazlası dokunulmadan kalmalı
+            double[] out = new double[t.size + 3];
+            Arrays.fill(out, Double.NaN);
+            model.scoreAll(t, out);
+            for (int i = 0; i < t.size; i++) {
+                Assert.assertEquals(out[i], model.score(t.price[i], t.durationMin[i], t.stopsCount[i], t.departureMin[i]),
+                        model.describe() + " row " + i);
+            }
+            for (int i = t.size; i < out.length; i++) Assert.assertTrue(Double.isNaN(out[i]), "wrote past size at " + i);
+        }
+    }
+
+    // ---------- yardımcılar ----------
+
+    private static double[] scoreAll(ScoreModel model, FlightTable t) {
+        double[] out = new double[t.size];
+        model.scoreAll(t, out);
+        return out;
+    }
+
+    /** j, i'yi domine eder: fiyat, süre ve aktarmada ≤, en az birinde &lt;. */
+    private static boolean dominates(FlightTable t, int j, int i) {
+        boolean le = t.price[j] <= t.price[i] && t.durationMin[j] <= t.durationMin[i] && t.stopsCount[j] <= t.stopsCount[i];
+        boolean lt = t.price[j] < t.price[i] || t.durationMin[j] < t.durationMin[i] || t.stopsCount[j] < t.stopsCount[i];
+        return le && lt;
+    }
+
+    /** [from, to) içindeki (gece yarısını geçebilen) en yakın dakikaya çember üzerinde uzaklık; boş aralık → 0. */
+    private static int minutesOutside(int m, int from, int to) {
+        if (from == to) return 0;
+        int best = Integer.MAX_VALUE;
+        for (int x = from; x != to; x = (x + 1) % DAY) {
+            int d = Math.abs(m - x);
+            best = Math.min(best, Math.min(d, DAY - d));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,129 @@
+package tests;
+
+import analysis.FlightCsvRow;
+import io.qameta.allure.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import pages.ResultsPage;
+import utils.ConfigReader;
+import utils.ConfigSnapshot;
+import utils.DriverFactory;
+import utils.ReplayServer;
+import utils.SnapshotStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ResultsPage çıkarım kodunu canlı site yerine kaydedilmiş sonuç sayfalarına (SnapshotStore) karşı,
+ * yerel ReplayServer ve headless tarayıcıyla çalıştırır. Depoda elle yazılmış küçük bir sayfa
+ * ({@code src/test/resources/snapshots/fixture_Istanbul_Lefkosa.html}) bulunur; snapshots.capture=true ile
+ * TC2 / TC4 koşturulunca yakalanan gerçek sayfalar da aynı klasöre eklenir.
+ * Belirli bir davranışı zorlayan elle yazılmış sayfalar {@value #CASES_DIR} altındadır; genel veri sağlayıcıya girmezler.
+ */
+@Epic("Analysis & Categorization")
+@Feature("Offline replay of result-page extraction")
+public class ResultsPageReplayTest {
+    private static final Logger log = LogManager.getLogger(ResultsPageReplayTest.class);
+    private static final String CASES_DIR = "src/test/resources/snapshots/cases";
+
+    private SnapshotStore store;
+    private ReplayServer server;
+    private ReplayServer cases;
+    private WebDriver driver;
+    private long explicitWaitSec;
+
+    @BeforeClass(alwaysRun = true)
+    public void startReplay() throws IOException {
+        store = SnapshotStore.fromConfig();
+        if (store.names().isEmpty()) {
+            throw new SkipException("No result-page snapshots under " + store.dir() + " (run TC2/TC4 with snapshots.capture=true)");
+        }
+        ConfigSnapshot cfg = ConfigReader.snapshot();
+        explicitWaitSec = cfg.explicitWaitSec();
+        server = new ReplayServer(store);
+        cases = new ReplayServer(new SnapshotStore(Path.of(CASES_DIR)));
+        driver = DriverFactory.createDriver(cfg.browser(), true, DriverFactory.Profile.EXTRACTION);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopReplay() {
+        if (driver != null) driver.quit();
+        if (server != null) server.close();
+        if (cases != null) cases.close();
+    }
+
+    @DataProvider(name = "snapshots")
+    public Object[][] snapshots() throws IOException {
+        return store.names().stream().map(n -> new Object[]{n}).toArray(Object[][]::new);
+    }
+
+    @Severity(SeverityLevel.NORMAL)
+    @Story("Extraction paths agree on a saved result page")
+    @Test(dataProvider = "snapshots", description = "Script and per-element extraction return the same parseable rows")
+    public void extractionMatchesOnSnapshot(String name) {
+        driver.get(server.url(name));
+        ResultsPage page = new ResultsPage(driver, explicitWaitSec).waitForResults();
+
+        long t0 = System.nanoTime();
+        List<String[]> viaScript = page.extractFlightRowsViaScript();
+        long scriptMs = (System.nanoTime() - t0) / 1_000_000;
+        t0 = System.nanoTime();
+        List<String[]> perElement = page.extractFlightRowsPerElement();
+        long perElementMs = (System.nanoTime() - t0) / 1_000_000;
+        log.info("[{}] {} rows: script {} ms, per-element {} ms", name, viaScript.size(), scriptMs, perElementMs);
+
+        Assert.assertFalse(viaScript.isEmpty(), "No rows extracted from snapshot " + name);
+        Assert.assertEquals(viaScript.size(), perElement.size(), "Row count differs between extraction paths");
+        for (int i = 0; i < viaScript.size(); i++) {
+            Assert.assertEquals(viaScript.get(i), perElement.get(i), "Row " + i + " differs between extraction paths");
+        }
+
+        for (String[] row : viaScript) {
+            Assert.assertTrue(FlightCsvRow.minuteOfDay(row[0]) >= 0, "Bad departure time: " + row[0]);
+            Assert.assertFalse(row[2].isBlank(), "Blank airline in row " + String.join(";", row));
+            Assert.assertTrue(FlightCsvRow.parsePrice(row[3]) > 0, "Bad price: " + row[3]);
+        }
+    }
+
+    @Severity(SeverityLevel.MINOR)
+    @Story("Card collectors work on a saved result page")
+    @Test(dataProvider = "snapshots", description = "getAllPrices / getAllAirlines read every card of the snapshot")
+    public void pricesAndAirlinesOnSnapshot(String name) {
+        driver.get(server.url(name));
+        ResultsPage page = new ResultsPage(driver, explicitWaitSec).waitForResults();
+
+        List<Integer> prices = page.getAllPrices();
+        List<String> airlines = page.getAllAirlines();
+
+        Assert.assertFalse(prices.isEmpty(), "No prices on snapshot " + name);
+        Assert.assertFalse(airlines.isEmpty(), "No airlines on snapshot " + name);
+        Assert.assertTrue(prices.stream().allMatch(p -> p > 0), "Non-positive price on snapshot " + name);
+    }
+
+    @Severity(SeverityLevel.NORMAL)
+    @Story("Harvest drops cards that never render")
+    @Test(description = "harvestFlightRows skips a card whose time and price never render instead of writing a 0 price")
+    public void harvestSkipsUnrenderedCards() {
+        driver.get(cases.url("unrendered_card"));
+        ResultsPage page = new ResultsPage(driver, explicitWaitSec).waitForResults();
+
+        List<String[]> rows = new ArrayList<>();
+        int emitted = page.harvestFlightRows(rows::add);
+
+        Assert.assertEquals(emitted, rows.size(), "Returned count differs from rows sent to the sink");
+        Assert.assertEquals(rows.size(), 2, "Only the two rendered cards should be harvested");
+        for (String[] row : rows) {
+            Assert.assertTrue(FlightCsvRow.parsePrice(row[3]) > 0, "Unrendered card written: " + String.join(";", row));
+        }
+    }
+}
@@ -68,6 +68,7 @@ public class TC2_PriceSortByAirlineTest extends BaseTest {
 
         List<Integer> prices  = Allure.step("Collect all visible prices from the result cards", results::getAllPrices);
         List<String> airlines = Allure.step("Collect all visible airline names from the result cards", results::getAllAirlines);
+        results.captureSnapshot("tc2_" + from + "_" + to + "_" + departDate);   // offline replay fixture (snapshots.capture=true)
 
         // ---- Assertions
         Allure.step("Verify that prices are sorted in ascending order", () ->
@@ -5,20 +5,32 @@ import io.qameta.allure.*;
 import org.testng.annotations.Test;
 import pages.HomePage;
 import pages.ResultsPage;
+import pages.SearchNavigator;
 import utils.AssertionsHelper;
 import utils.ConfigReader;
+import utils.ConfigSnapshot;
+import utils.DriverFactory;
+import utils.RunContext;
 import analysis.CsvExporter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.List;
 
 @Epic("Analysis & Categorization")
 @Feature("Data Extraction and Analysis (CSV + Charts)")
 @Owner("Enes AYDOGDU")
 public class TC4_FlightDataExtractionAndAnalysisTest extends BaseTest {
 
+    /** Extraction only reads the result list, so it can run on the lightweight browser profile. */
+    @Override
+    protected DriverFactory.Profile driverProfile() {
+        return ConfigReader.snapshot().analysisDriverProfile();
+    }
+
     @Severity(SeverityLevel.NORMAL)
     @Story("Extract, persist, and analyze flight search results")
     @Description("""
@@ -39,22 +51,30 @@ public class TC4_FlightDataExtractionAndAnalysisTest extends BaseTest {
         """)
     @Test(description = "Extract all flights to CSV and produce charts/analytics for further insights")
     public void extractToCsvAndAnalyze() throws Exception {
-        // -------- Read parameters from config.properties
-        String baseUrl   = ConfigReader.get("baseUrl");
-        String from      = ConfigReader.get("analysis.route.from");      // e.g., Istanbul
-        String to        = ConfigReader.get("analysis.route.to");        // e.g., Nicosia
-        String depart    = ConfigReader.get("analysis.departDate");      // yyyy-MM-dd
-        String ret       = ConfigReader.get("analysis.returnDate");      // yyyy-MM-dd
+        // -------- Read parameters from config.properties (one immutable snapshot for the whole test)
+        ConfigSnapshot cfg = ConfigReader.snapshot();
+        String baseUrl   = cfg.get("baseUrl");
+        String from      = cfg.get("analysis.route.from");      // e.g., Istanbul
+        String to        = cfg.get("analysis.route.to");        // e.g., Nicosia
+        String depart    = cfg.get("analysis.departDate");      // yyyy-MM-dd
+        String ret       = cfg.get("analysis.returnDate");      // yyyy-MM-dd
 
         // Output base (default to target/analysis)
-        String outputBase = ConfigReader.getOrDefault("analysis.outputBase", "target");
-        String exportDir  = ConfigReader.getOrDefault("analysis.exportDir", outputBase);
+        // Under parallel runs each worker thread gets its own subfolder (RunContext)
+        String baseDir    = cfg.getOrDefault("analysis.outputBase", "target");
+        String outputBase = RunContext.outputDir(baseDir).toString();
+        String exportDir  = RunContext.outputDir(cfg.getOrDefault("analysis.exportDir", baseDir)).toString();
 
         // Analysis knobs (defaults provided)
-        int slotCount         = ConfigReader.getIntOrDefault("analysis.slotCount", 6);
-        int weightAlphaTlPerMin = ConfigReader.getIntOrDefault("analysis.weight.alphaTlPerMin", 3);   // TL per minute
-        int weightStopPenalty   = ConfigReader.getIntOrDefault("analysis.weight.stopPenalty", 250);   // TL per connection
-        int directBonus         = ConfigReader.getIntOrDefault("analysis.weight.directBonus", 50);    // TL bonus for direct
+        int slotCount         = cfg.getIntOrDefault("analysis.slotCount", 6);
+        var scoreModel          = analysis.ScoreModel.fromConfig(cfg);                       // analysis.scoreModel + analysis.weight.*
+        int parallelism         = cfg.getIntOrDefault("analysis.parallelism", 1);            // fork-join chunks (1 = sequential)
+        int chartThreads        = cfg.getIntOrDefault("analysis.chartThreads", 2);           // concurrent PNG renders
+        boolean incremental     = cfg.getBoolean("analysis.incremental", false);             // fold into route_state.bin
+        boolean historyEnabled  = cfg.getBoolean("analysis.history.enabled", true);          // append to price history
+        String historyDir       = cfg.getOrDefault("analysis.history.dir", "target/price-history");
+        int trendCaptures       = cfg.getIntOrDefault("analysis.history.trendCaptures", 30); // points per trend line
+        boolean binarySnapshot  = cfg.getBoolean("analysis.binarySnapshot", true);           // .fbin next to the CSV
 
         // -------- Allure parameters for reporting
         Allure.parameter("Base URL", baseUrl);
@@ -64,28 +84,46 @@ public class TC4_FlightDataExtractionAndAnalysisTest extends BaseTest {
         Allure.parameter("Output Base", outputBase);
         Allure.parameter("Export Dir", exportDir);
         Allure.parameter("Slot Count", String.valueOf(slotCount));
-        Allure.parameter("Weights", "alpha=" + weightAlphaTlPerMin + " TL/min, stop=" + weightStopPenalty + ", directBonus=" + directBonus);
+        Allure.parameter("Parallelism", String.valueOf(parallelism));
+        Allure.parameter("Chart Threads", String.valueOf(chartThreads));
+        Allure.parameter("Incremental", String.valueOf(incremental));
+        Allure.parameter("Driver Profile", driverProfile().name());
+        Allure.parameter("Score Model", scoreModel.describe());
 
         // -------- Test steps
-        Allure.step("Navigate to homepage, configure round-trip with given route/dates, then start search", () -> {
-            new HomePage(driver, explicitWaitSec)
-                    .goTo(baseUrl)
-                    .ensureRoundTrip()
-                    .setFrom(from)
-                    .setTo(to)
-                    .ensureHotelsListUnchecked()
-                    .setDates(depart, ret)
-                    .search();
-        });
-
-        ResultsPage results = Allure.step("Wait for flight results to load", () ->
-                new ResultsPage(driver, explicitWaitSec).waitForResults()
-        );
-
-        // Extract flight rows: [dep, arr, airline, price, currency, duration, stops]
-        List<String[]> rows = Allure.step("Extract all flights from search results (rows)", results::extractFlightRows);
-
-        AssertionsHelper.mustTrue(!rows.isEmpty(), "No rows were collected from the results.");
+        boolean directSearch = cfg.getBoolean("analysis.directSearch", true);
+        Allure.parameter("Direct Search URL", String.valueOf(directSearch));
+
+        long[] searchStart = new long[1];
+        ResultsPage results;
+        if (directSearch) {
+            // Extraction does not validate the form: open the result URL directly (falls back to the form itself)
+            results = Allure.step("Open search results for the route/dates directly", () -> {
+                searchStart[0] = System.nanoTime();
+                return new SearchNavigator(driver, explicitWaitSec).open(baseUrl, from, to, depart, ret);
+            });
+        } else {
+            Allure.step("Navigate to homepage, configure round-trip with given route/dates, then start search", () -> {
+                HomePage home = new HomePage(driver, explicitWaitSec)
+                        .goTo(baseUrl)
+                        .ensureRoundTrip()
+                        .setFrom(from)
+                        .setTo(to)
+                        .ensureHotelsListUnchecked()
+                        .setDates(depart, ret);
+                searchStart[0] = System.nanoTime();
+                home.search();
+            });
+
+            results = Allure.step("Wait for flight results to load", () ->
+                    new ResultsPage(driver, explicitWaitSec).waitForResults()
+            );
+        }
+
+        // Search (click or direct URL) → result list ready; compare driver profiles (default vs extraction) with this number
+        long searchMs = (System.nanoTime() - searchStart[0]) / 1_000_000;
+        Allure.parameter("Search → Results (ms)", String.valueOf(searchMs));
+        log.info("Search to results took {} ms (driver profile: {})", searchMs, driverProfile());
 
         // Ensure export directory exists
         Path exportPath = Path.of(exportDir);
@@ -93,14 +131,27 @@ public class TC4_FlightDataExtractionAndAnalysisTest extends BaseTest {
             Files.createDirectories(exportPath);
         }
 
+        // Harvest flight rows while scrolling, streaming each new card straight to the CSV:
+        // [dep, arr, airline, price, currency, duration, stops]
         String csvName = "flights_" + from + "_" + to + ".csv";
-        Path exported = CsvExporter.writeFlights(
-                rows,
-                exportPath,
-                csvName,
-                true
-        );
-        log.info("CSV written: {}", exported.toAbsolutePath());
+        int rowCount;
+        Path exported;
+        try (CsvExporter.Session csv = CsvExporter.open(exportPath, csvName, true, 50)) {
+            rowCount = Allure.step("Extract all flights from search results (rows)", () ->
+                    results.harvestFlightRows(row -> {
+                        try {
+                            csv.append(row);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+            exported = csv.path();
+        }
+
+        AssertionsHelper.mustTrue(rowCount > 0, "No rows were collected from the results.");
+        // Offline replay fixture (only when snapshots.capture=true)
+        results.captureSnapshot("tc4_" + from + "_" + to + "_" + depart);
+        log.info("CSV written: {} ({} rows)", exported.toAbsolutePath(), rowCount);
 
         // Build report directory under output base with route + today's date for comparability
         Path reportDir = Path.of(outputBase, "analysis",
@@ -108,14 +159,39 @@ public class TC4_FlightDataExtractionAndAnalysisTest extends BaseTest {
 
         // Instantiate analysis services
         var loader  = new analysis.CsvLoader();
-        var agg     = new analysis.PriceAggregator();
-        var charts  = new analysis.ChartService();
-        var scoring = new analysis.ScoringService(weightAlphaTlPerMin, weightStopPenalty, directBonus);
+        var agg     = new analysis.PriceAggregator(parallelism);
+        var scoring = new analysis.ScoringService(scoreModel, parallelism);
 
-        // Run end-to-end analysis pipeline
+        // Binary snapshot next to the CSV: parsed once here, everything below reads it memory-mapped
         Path csvPath = exportPath.resolve(csvName);
-        new analysis.AnalysisRunner(loader, agg, charts, scoring, slotCount)
-                .run(csvPath, reportDir, from + " → " + to, LocalDate.now());
+        Path analysisInput = csvPath;
+        if (binarySnapshot) {
+            analysisInput = analysis.CsvExporter.writeBinary(loader.loadTable(csvPath, slotCount),
+                    exportPath, analysis.FlightBinary.siblingOf(csvPath).getFileName().toString());
+            log.info("Binary snapshot written: {}", analysisInput.toAbsolutePath());
+        }
+        Path input = analysisInput;
+
+        // Run end-to-end analysis pipeline (charts render on their own pool, closed afterwards)
+        // Incremental: this run's CSV is folded into the route/date state instead of re-analyzing history
+        try (var charts = new analysis.ChartService(chartThreads)) {
+            var runner = new analysis.AnalysisRunner(loader, agg, charts, scoring, slotCount);
+            var result = incremental
+                    ? runner.runIncremental(input, reportDir, from + " → " + to, LocalDate.now())
+                    : runner.run(input, reportDir, from + " → " + to, LocalDate.now());
+            Allure.parameter("Analyzed Flights", String.valueOf(result.flightCount()));
+
+            // Price history: append this capture, then chart trends across previous runs for the same route/date
+            if (historyEnabled) {
+                Allure.step("Append prices to history and draw trend charts", () -> {
+                    try (var history = analysis.PriceHistoryStore.open(Path.of(historyDir), from + "_" + to, LocalDate.parse(depart))) {
+                        history.appendCapture(Instant.now(), loader.loadTable(input, slotCount));
+                        runner.writeTrendCharts(history, result.top, reportDir, from + " → " + to, trendCaptures, 5);
+                        Allure.parameter("History Records", String.valueOf(history.size()));
+                    }
+                });
+            }
+        }
 
         log.info("Analysis completed. Outputs under: {}", reportDir.toAbsolutePath());
     }